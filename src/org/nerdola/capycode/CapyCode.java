@@ -1,18 +1,35 @@
 package org.nerdola.capycode;
 
+import org.nerdola.capycode.aot.*;
 import org.nerdola.capycode.compiler.*;
+import org.nerdola.capycode.repl.*;
+import org.nerdola.capycode.scheduler.*;
+import org.nerdola.capycode.trace.*;
 import org.nerdola.capycode.util.*;
 
+import java.nio.file.Path;
 import java.util.*;
 
 public class CapyCode {
     public static void main(String[] args) throws Exception {
         //System.out.println("=== CapyCode Compiler 1.0 ===");
 
+        if (args.length == 1 && args[0].equals("-i")) {
+            Repl.interactive();
+            return;
+        }
+
         if (args.length < 2) {
             System.out.println("Usage:");
             System.out.println("  CapyCode -c <file.cy>   // compile");
-            System.out.println("  CapyCode -r <file.cyc>  // run");
+            System.out.println("  CapyCode -r <file.cyc> [--trace]");
+            System.out.println("                          // run; --trace records a binary trace to <file.cyt>");
+            System.out.println("  CapyCode -t <file.cyt>  // decode a trace");
+            System.out.println("  CapyCode -a <file.cy>   // compile ahead-of-time to a runnable jar");
+            System.out.println("  CapyCode -w <file.cy>   // watch and re-run edited statements");
+            System.out.println("  CapyCode -i             // interactive REPL");
+            System.out.println("  CapyCode -m [--threads=N] [--slice=N] [--max-instructions=N] [--max-ms=N] [--trace] <file.cyc>...");
+            System.out.println("                          // run many scripts concurrently");
             return;
         }
 
@@ -25,10 +42,57 @@ public class CapyCode {
             List<Token> tokens = lexer.tokenize();
             BytecodeWriter.write(filename.replace(".cy", ".cyc"), tokens);
             System.out.println("[Compiler] Compilation complete.");
+        } else if (command.equals("-a")) {
+            String source = FileUtils.readFile(filename);
+            List<Token> tokens = new Lexer(source).tokenize();
+            Path jar = AotCompiler.compileToJar(filename, tokens);
+            System.out.println("[Compiler] Wrote jar: " + jar);
+            System.out.println("[Compiler] AppCDS: java -XX:ArchiveClassesAtExit=app.jsa -jar " + jar +
+                    ", then java -XX:SharedArchiveFile=app.jsa -jar " + jar);
         } else if (command.equals("-r")) {
-            Executor.run(filename);
+            Executor.run(filename, args.length > 2 && args[2].equals("--trace"));
+        } else if (command.equals("-t")) {
+            TraceDecoder.decode(Path.of(filename), System.out);
+        } else if (command.equals("-w")) {
+            Repl.watch(filename);
+        } else if (command.equals("-m")) {
+            runConcurrently(Arrays.copyOfRange(args, 1, args.length));
         } else {
             System.out.println("Unknown command: " + command);
         }
     }
+
+    private static void runConcurrently(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int slice = 1000;
+        long maxInstructions = Long.MAX_VALUE;
+        long maxMillis = 0;
+        boolean trace = false;
+        List<String> files = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--threads=")) threads = Integer.parseInt(arg.substring("--threads=".length()));
+            else if (arg.startsWith("--slice=")) slice = Integer.parseInt(arg.substring("--slice=".length()));
+            else if (arg.startsWith("--max-instructions=")) maxInstructions = Long.parseLong(arg.substring("--max-instructions=".length()));
+            else if (arg.startsWith("--max-ms=")) maxMillis = Long.parseLong(arg.substring("--max-ms=".length()));
+            else if (arg.equals("--trace")) trace = true;
+            else files.add(arg);
+        }
+
+        List<ScriptHandle> handles = new ArrayList<>();
+        try (ScriptScheduler scheduler = new ScriptScheduler(threads, slice)) {
+            for (String file : files) {
+                Script script = Script.load(file);
+                if (trace) {
+                    script.context().setTrace(new TraceRecorder(TraceRecorder.DEFAULT_CAPACITY, TraceRecorder.pathFor(file)));
+                }
+                handles.add(scheduler.submit(script, maxInstructions, maxMillis));
+            }
+            for (ScriptHandle handle : handles) {
+                ScriptHandle.Status status = handle.await();
+                System.out.println("[Scheduler] " + handle.script.name + ": " + status +
+                        " (" + handle.instructionCount() + " instructions)");
+            }
+        }
+    }
 }
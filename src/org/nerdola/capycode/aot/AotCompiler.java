@@ -0,0 +1,883 @@
+package org.nerdola.capycode.aot;
+
+import org.nerdola.capycode.compiler.*;
+
+import javax.tools.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.jar.*;
+
+// Compila um programa .cy para uma classe Java e a empacota em um jar executável.
+// Variáveis globais viram campos estáticos, variáveis de função viram locais e
+// Output/Array viram chamadas diretas. A interpolação "{NOME}" é resolvida em tempo de
+// compilação para literais de string e em tempo de execução para os demais textos.
+public class AotCompiler {
+
+    private static class FunctionSig {
+        final String name;
+        final String returnType;
+        final List<String> paramTypes = new ArrayList<>();
+        final List<String> paramNames = new ArrayList<>();
+        final boolean pure;
+        final Token start;
+        List<Token> body;
+
+        FunctionSig(String name, String returnType, boolean pure, Token start) {
+            this.name = name;
+            this.returnType = returnType;
+            this.pure = pure;
+            this.start = start;
+        }
+    }
+
+    private final String className;
+    private final Set<String> importedLibs = new HashSet<>();
+    private final Map<String, String> globals = new LinkedHashMap<>();
+    private final Map<String, FunctionSig> functions = new LinkedHashMap<>();
+    private Map<String, String> locals;
+    private FunctionSig currentFunction;
+
+    private AotCompiler(String className) {
+        this.className = className;
+    }
+
+    // Gera <arquivo>.jar ao lado do fonte e devolve o caminho
+    public static Path compileToJar(String sourceFile, List<Token> tokens) throws IOException {
+        String className = classNameFor(sourceFile);
+        String javaSource = new AotCompiler(className).translate(tokens);
+
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        if (javac == null) {
+            Logger.fatal("AOT compilation requires a JDK (no system Java compiler found)", 0, 0);
+        }
+
+        Path workDir = Files.createTempDirectory("capycode-aot");
+        try {
+            Path javaFile = workDir.resolve(className + ".java");
+            Files.writeString(javaFile, javaSource, StandardCharsets.UTF_8);
+
+            StringWriter diagnostics = new StringWriter();
+            boolean ok = javac.getTask(diagnostics, null, null,
+                    List.of("-d", workDir.toString(), "-encoding", "UTF-8", "-nowarn"),
+                    null, javac.getStandardFileManager(null, null, StandardCharsets.UTF_8).getJavaFileObjects(javaFile.toFile()))
+                    .call();
+            if (!ok) {
+                Logger.fatal("Generated Java failed to compile:\n" + diagnostics, 0, 0);
+            }
+
+            Path jar = Path.of(sourceFile.replace(".cy", ".jar"));
+            Manifest manifest = new Manifest();
+            manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+            manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, className);
+
+            try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar), manifest);
+                 DirectoryStream<Path> classes = Files.newDirectoryStream(workDir, "*.class")) {
+                for (Path classFile : classes) {
+                    out.putNextEntry(new JarEntry(classFile.getFileName().toString()));
+                    out.write(Files.readAllBytes(classFile));
+                    out.closeEntry();
+                }
+            }
+            return jar;
+        } finally {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(workDir)) {
+                for (Path file : files) Files.delete(file);
+            }
+            Files.delete(workDir);
+        }
+    }
+
+    static String classNameFor(String sourceFile) {
+        String base = Path.of(sourceFile).getFileName().toString().replaceFirst("\\.cy$", "");
+        StringBuilder name = new StringBuilder();
+        for (char c : base.toCharArray()) {
+            name.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        }
+        if (name.length() == 0 || !Character.isJavaIdentifierStart(name.charAt(0))) {
+            name.insert(0, "Capy");
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    String translate(List<Token> tokens) {
+        List<List<Token>> statements = split(tokens);
+
+        // Assinaturas primeiro, para que chamadas possam aparecer antes da declaração
+        List<List<Token>> mainStatements = new ArrayList<>();
+        for (List<Token> statement : statements) {
+            if (isFunctionDeclaration(statement)) {
+                declareFunction(statement);
+            } else {
+                mainStatements.add(statement);
+            }
+        }
+
+        StringBuilder main = new StringBuilder();
+        for (List<Token> statement : mainStatements) {
+            statement(statement, main, "        ");
+        }
+
+        StringBuilder methods = new StringBuilder();
+        for (FunctionSig function : functions.values()) {
+            function(function, methods);
+        }
+
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated by CapyCode AOT compiler\n");
+        out.append("public final class ").append(className).append(" {\n");
+        for (Map.Entry<String, String> global : globals.entrySet()) {
+            out.append("    static ").append(javaType(global.getValue(), 0)).append(' ').append(javaName(global.getKey())).append(";\n");
+        }
+        out.append("\n    public static void main(String[] args) {\n");
+        out.append(main);
+        out.append("    }\n");
+        out.append(methods);
+        out.append(RUNTIME);
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private List<List<Token>> split(List<Token> tokens) {
+        List<List<Token>> statements = new ArrayList<>();
+        List<Token> current = new ArrayList<>();
+        boolean inFunction = false;
+
+        for (Token token : tokens) {
+            if (token.type == TokenType.EOF) break;
+
+            if (current.isEmpty()) {
+                if (token.type == TokenType.USING) {
+                    importedLibs.add(token.value);
+                    continue;
+                }
+                // ';' solto, como o que segue 'using X'
+                if (token.type == TokenType.SEMICOLON) continue;
+                inFunction = token.type == TokenType.FUNC || token.type == TokenType.PURE;
+            }
+
+            current.add(token);
+            if (inFunction ? token.type == TokenType.RBRACE : token.type == TokenType.SEMICOLON) {
+                statements.add(current);
+                current = new ArrayList<>();
+            }
+        }
+
+        if (!current.isEmpty()) {
+            Logger.fatal("Incomplete statement at end of file", current.get(0).line, current.get(0).column);
+        }
+        return statements;
+    }
+
+    private static boolean isFunctionDeclaration(List<Token> statement) {
+        return statement.get(0).type == TokenType.FUNC || statement.get(0).type == TokenType.PURE;
+    }
+
+    private void declareFunction(List<Token> tokens) {
+        int i = 0;
+        boolean pure = tokens.get(i).type == TokenType.PURE;
+        if (pure) i++;
+        Token start = tokens.get(0);
+
+        if (tokens.size() < i + 6 || tokens.get(i).type != TokenType.FUNC ||
+            tokens.get(i + 1).type != TokenType.IDENTIFIER || tokens.get(i + 2).type != TokenType.IDENTIFIER ||
+            tokens.get(i + 3).type != TokenType.LPAREN) {
+            Logger.fatal("Invalid function declaration: expected 'func(TYPE) NAME(...) { ... }'", start.line, start.column);
+        }
+
+        FunctionSig function = new FunctionSig(tokens.get(i + 2).value, tokens.get(i + 1).value.toUpperCase(), pure, start);
+        if (functions.containsKey(function.name)) {
+            Logger.fatal("Function '" + function.name + "' already declared", start.line, start.column);
+        }
+
+        int close = findClosing(tokens, i + 3);
+        for (List<Token> param : splitArguments(tokens.subList(i + 4, close))) {
+            boolean isArray = param.size() == 4 && param.get(1).type == TokenType.LBRACKET && param.get(2).type == TokenType.RBRACKET;
+            if ((param.size() != 2 && !isArray) || param.get(0).type != TokenType.IDENTIFIER ||
+                param.get(param.size() - 1).type != TokenType.IDENTIFIER) {
+                Logger.fatal("Invalid parameter in function '" + function.name + "': expected 'TYPE NAME'", start.line, start.column);
+            }
+            String type = param.get(0).value.toUpperCase();
+            function.paramTypes.add(isArray ? type + "[]" : type);
+            function.paramNames.add(param.get(param.size() - 1).value);
+        }
+
+        if (close + 1 >= tokens.size() || tokens.get(close + 1).type != TokenType.LBRACE) {
+            Logger.fatal("Expected '{' to open body of function '" + function.name + "'", start.line, start.column);
+        }
+        function.body = tokens.subList(close + 2, tokens.size() - 1);
+        functions.put(function.name, function);
+    }
+
+    private void function(FunctionSig function, StringBuilder out) {
+        locals = new HashMap<>();
+        currentFunction = function;
+        StringBuilder params = new StringBuilder();
+        List<String> args = new ArrayList<>();
+        for (int i = 0; i < function.paramNames.size(); i++) {
+            String name = function.paramNames.get(i);
+            locals.put(name, function.paramTypes.get(i));
+            if (i > 0) params.append(", ");
+            params.append(javaType(function.paramTypes.get(i), 0)).append(' ').append(javaName(name));
+            args.add(javaName(name));
+        }
+
+        String returnType = javaType(function.returnType, 0);
+        boolean memoize = function.pure && !returnType.equals("void") && !returnType.endsWith("[]") &&
+                          function.paramTypes.stream().noneMatch(type -> type.endsWith("[]"));
+        String bodyName = memoize ? "body_" + function.name : javaFunction(function.name);
+
+        out.append("\n    static ").append(returnType).append(' ').append(bodyName).append('(').append(params).append(") {\n");
+        // o interpretador para no primeiro return; o que vem depois não é traduzido,
+        // senão o javac reclama de código inalcançável
+        List<Token> statement = new ArrayList<>();
+        boolean returned = false;
+        for (Token token : function.body) {
+            statement.add(token);
+            if (token.type == TokenType.SEMICOLON) {
+                if (!returned) statement(statement, out, "        ");
+                returned |= statement.get(0).type == TokenType.RETURN;
+                statement = new ArrayList<>();
+            }
+        }
+        if (!statement.isEmpty()) {
+            Logger.fatal("Expected ';' before '}' in function '" + function.name + "'", statement.get(0).line, statement.get(0).column);
+        }
+        if (!returned && !returnType.equals("void")) {
+            Logger.fatal("Function '" + function.name + "' must return a value of type " + function.returnType,
+                    function.start.line, function.start.column);
+        }
+        out.append("    }\n");
+
+        if (memoize) {
+            String memo = "memo_" + function.name;
+            String boxed = boxedType(returnType);
+            out.append("\n    static final java.util.Map<java.util.List<Object>, Object> ").append(memo).append(" = lru();\n");
+            out.append("\n    static ").append(returnType).append(' ').append(javaFunction(function.name)).append('(').append(params).append(") {\n");
+            out.append("        java.util.List<Object> key = java.util.List.of(").append(String.join(", ", args)).append(");\n");
+            out.append("        ").append(boxed).append(" cached = (").append(boxed).append(") ").append(memo).append(".get(key);\n");
+            out.append("        if (cached != null) return cached;\n");
+            out.append("        ").append(returnType).append(" result = ").append(bodyName).append('(').append(String.join(", ", args)).append(");\n");
+            out.append("        ").append(memo).append(".put(key, result);\n");
+            out.append("        return result;\n");
+            out.append("    }\n");
+        }
+        locals = null;
+        currentFunction = null;
+    }
+
+    private void statement(List<Token> tokens, StringBuilder out, String indent) {
+        Token first = tokens.get(0);
+        List<Token> body = tokens.subList(0, tokens.size() - 1); // sem o ';'
+        out.append(indent);
+
+        if (first.type == TokenType.VAR) {
+            if (body.size() < 4 || body.get(1).type != TokenType.IDENTIFIER || body.get(2).type != TokenType.IDENTIFIER ||
+                body.get(3).type != TokenType.EQUAL) {
+                Logger.fatal("Invalid variable declaration", first.line, first.column);
+            }
+            String type = body.get(1).value;
+            String name = body.get(2).value;
+            Map<String, String> scope = locals != null ? locals : globals;
+            if (scope.containsKey(name)) {
+                Logger.fatal("Variable '" + name + "' already declared", first.line, first.column);
+            }
+            String value = expression(body.subList(4, body.size()));
+            if (!isTypeCompatible(type, typeOf(body.subList(4, body.size())))) {
+                Logger.fatal("Tipo incompatível para variável '" + name + "'", first.line, first.column);
+            }
+            scope.put(name, type);
+            if (locals != null) out.append(javaType(type, first.line)).append(' ');
+            out.append(javaName(name)).append(" = ").append(value).append(";\n");
+        } else if (first.type == TokenType.RETURN) {
+            checkReturn(body, first);
+            out.append(body.size() == 1 ? "return;\n" : "return " + expression(body.subList(1, body.size())) + ";\n");
+        } else if (first.type == TokenType.PRINT && body.size() == 2) {
+            out.append("System.out.println(").append(printArgument(body.subList(1, 2))).append(");\n");
+        } else if (first.type == TokenType.IDENTIFIER && first.value.equals("Output") && body.size() >= 5 &&
+                   body.get(1).type == TokenType.DOT) {
+            requireLibrary("Output", first);
+            String method = body.get(2).value;
+            if (!method.equals("print") && !method.equals("println")) {
+                Logger.fatal("Unknown Output function: " + method, first.line, first.column);
+            }
+            out.append("System.out.").append(method).append('(').append(printArgument(body.subList(4, body.size() - 1))).append(");\n");
+        } else if (first.type == TokenType.IDENTIFIER && body.size() >= 3 && body.get(1).type == TokenType.EQUAL) {
+            String type = typeOf(first);
+            if (isInput(body)) {
+                requireLibrary("Output", body.get(2));
+                String expected = body.get(9).value.toUpperCase();
+                String reader = switch (expected) {
+                    case "INT" -> "readInt";
+                    case "STRING" -> "readString";
+                    default -> {
+                        Logger.fatal("Unsupported input type: " + expected, first.line, first.column);
+                        yield null;
+                    }
+                };
+                if (!expected.equals(type)) {
+                    Logger.fatal("Type mismatch: variable '" + first.value + "' is of type " + type, first.line, first.column);
+                }
+                out.append(javaName(first.value)).append(" = ").append(reader).append('(')
+                   .append(javaString(body.get(6).value)).append(");\n");
+            } else {
+                String valueType = typeOf(body.subList(2, body.size()));
+                if (!isTypeCompatible(type, valueType)) {
+                    Logger.fatal("Type mismatch: variable '" + first.value + "' is of type " + type +
+                            ", but tried to assign " + valueType, first.line, first.column);
+                }
+                out.append(javaName(first.value)).append(" = ").append(expression(body.subList(2, body.size()))).append(";\n");
+            }
+        } else if (first.type == TokenType.IDENTIFIER && body.size() >= 2 && body.get(1).type == TokenType.LBRACKET) {
+            int close = findClosing(body, 1);
+            if (close + 1 >= body.size() || body.get(close + 1).type != TokenType.EQUAL) {
+                Logger.fatal("Expected '=' after index of array '" + first.value + "'", first.line, first.column);
+            }
+            String elementType = elementTypeOf(first);
+            checkIndex(body.subList(2, close), first);
+            String valueType = typeOf(body.subList(close + 2, body.size()));
+            if (!isTypeCompatible(elementType, valueType)) {
+                Logger.fatal("Type mismatch: array '" + first.value + "' holds " + elementType +
+                        ", but tried to store " + valueType, first.line, first.column);
+            }
+            out.append(javaName(first.value)).append('[').append(expression(body.subList(2, close))).append("] = ")
+               .append(expression(body.subList(close + 2, body.size()))).append(";\n");
+        } else if (first.type == TokenType.IDENTIFIER && body.size() >= 2 &&
+                   (body.get(1).type == TokenType.LPAREN || body.get(1).type == TokenType.DOT)) {
+            typeOf(body);
+            out.append(expression(body)).append(";\n");
+        } else {
+            Logger.fatal("Statement not supported by the AOT compiler", first.line, first.column);
+        }
+    }
+
+    // NOME = Output.input("...")(TIPO);
+    private static boolean isInput(List<Token> body) {
+        return body.size() == 11 &&
+               body.get(2).type == TokenType.IDENTIFIER && body.get(2).value.equals("Output") &&
+               body.get(3).type == TokenType.DOT &&
+               body.get(4).type == TokenType.IDENTIFIER && body.get(4).value.equals("input") &&
+               body.get(5).type == TokenType.LPAREN && body.get(6).type == TokenType.STRING &&
+               body.get(7).type == TokenType.RPAREN && body.get(8).type == TokenType.LPAREN &&
+               body.get(9).type == TokenType.IDENTIFIER && body.get(10).type == TokenType.RPAREN;
+    }
+
+    private String printArgument(List<Token> tokens) {
+        if (tokens.size() == 1 && tokens.get(0).type == TokenType.STRING) {
+            return interpolate(tokens.get(0).value);
+        }
+        String type = typeOf(tokens);
+        String value = tokens.size() == 1 && tokens.get(0).type == TokenType.IDENTIFIER
+                ? display(tokens.get(0).value, type)
+                : expression(tokens);
+        if (!type.equals("STRING") && !type.equals("CHAR")) {
+            return value;
+        }
+
+        // O texto só é conhecido em tempo de execução; o interpretador resolve "{NOME}" nele
+        // com as variáveis visíveis, locais antes das globais
+        StringBuilder call = new StringBuilder("interpolate(").append(value);
+        Set<String> visible = new LinkedHashSet<>();
+        if (locals != null) visible.addAll(locals.keySet());
+        if (currentFunction == null || !currentFunction.pure) visible.addAll(globals.keySet());
+        for (String name : visible) {
+            call.append(", ").append(javaString(name)).append(", ").append(javaName(name));
+        }
+        return call.append(')').toString();
+    }
+
+    private String interpolate(String s) {
+        StringBuilder out = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < s.length()) {
+            int open = s.indexOf('{', i);
+            int end = open == -1 ? -1 : s.indexOf('}', open);
+            if (end == -1) {
+                literal.append(s, i, s.length());
+                break;
+            }
+            String name = s.substring(open + 1, end).trim();
+            String type = lookup(name, 0, 0);
+            literal.append(s, i, open);
+            if (type == null) {
+                literal.append(s, open, end + 1);
+            } else {
+                out.append(out.length() == 0 ? "" : " + ").append(javaString(literal.toString()))
+                   .append(" + ").append(display(name, type));
+                literal.setLength(0);
+            }
+            i = end + 1;
+        }
+        if (out.length() == 0 || literal.length() > 0) {
+            out.append(out.length() == 0 ? "" : " + ").append(javaString(literal.toString()));
+        }
+        return out.toString();
+    }
+
+    private static String display(String name, String type) {
+        return type.endsWith("[]") ? "java.util.Arrays.toString(" + javaName(name) + ")" : javaName(name);
+    }
+
+    private String expression(List<Token> tokens) {
+        if (tokens.isEmpty()) {
+            Logger.fatal("Empty expression", 0, 0);
+        }
+
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            switch (token.type) {
+                case NUMBER, FLOAT, BOOLEAN -> out.append(token.value);
+                case STRING, CHAR -> out.append(javaString(token.value));
+                case PLUS -> out.append(" + ");
+                case MINUS -> out.append(" - ");
+                case STAR -> out.append(" * ");
+                case SLASH -> out.append(" / ");
+                case PERCENT -> out.append(" % ");
+                // o interpretador ignora parênteses de agrupamento; traduzi-los daria outro resultado
+                case LPAREN, RPAREN -> Logger.fatal("Grouping parentheses are not supported", token.line, token.column);
+                case LBRACKET -> out.append('[');
+                case RBRACKET -> out.append(']');
+                case COMMA -> out.append(", ");
+                case IDENTIFIER -> {
+                    boolean call = i + 1 < tokens.size() && tokens.get(i + 1).type == TokenType.LPAREN;
+                    if (token.value.equals("Array") && i + 3 < tokens.size() && tokens.get(i + 1).type == TokenType.DOT) {
+                        requireLibrary("Array", token);
+                        int close = findClosing(tokens, i + 3);
+                        out.append(arrayCall(tokens.get(i + 2), splitArguments(tokens.subList(i + 4, close))));
+                        i = close;
+                    } else if (token.value.equals("Output")) {
+                        Logger.fatal("Invalid use of 'Output' in expression", token.line, token.column);
+                    } else if (token.value.equals("Map") && i + 1 < tokens.size() && tokens.get(i + 1).type == TokenType.DOT) {
+                        Logger.fatal("Map is not supported by the AOT compiler", token.line, token.column);
+                    } else if (call) {
+                        FunctionSig function = functions.get(token.value);
+                        if (function == null) {
+                            Logger.fatal("Undefined function: " + token.value, token.line, token.column);
+                        }
+                        if (currentFunction != null && currentFunction.pure && !function.pure) {
+                            Logger.fatal("Pure function '" + currentFunction.name + "' cannot call non-pure function '" +
+                                    function.name + "'", token.line, token.column);
+                        }
+                        int close = findClosing(tokens, i + 1);
+                        List<String> args = new ArrayList<>();
+                        for (List<Token> arg : splitArguments(tokens.subList(i + 2, close))) {
+                            args.add(expression(arg));
+                        }
+                        if (args.size() != function.paramTypes.size()) {
+                            Logger.fatal("Function '" + function.name + "' expects " + function.paramTypes.size() +
+                                    " argument(s), got " + args.size(), token.line, token.column);
+                        }
+                        out.append(javaFunction(token.value)).append('(').append(String.join(", ", args)).append(')');
+                        i = close;
+                    } else {
+                        typeOf(token);
+                        out.append(javaName(token.value));
+                    }
+                }
+                default -> Logger.fatal("Token " + token.type + " not supported in expressions by the AOT compiler",
+                        token.line, token.column);
+            }
+        }
+        return out.toString();
+    }
+
+    private String arrayCall(Token method, List<List<Token>> args) {
+        switch (method.value) {
+            case "new" -> {
+                expectArguments(method, args, 2);
+                String elementType = args.get(0).get(0).value.toUpperCase();
+                String javaArray = javaType(elementType + "[]", method.line);
+                return "new " + javaArray.substring(0, javaArray.length() - 2) + "[" + expression(args.get(1)) + "]";
+            }
+            case "length" -> {
+                expectArguments(method, args, 1);
+                return "(" + expression(args.get(0)) + ").length";
+            }
+            case "sum" -> {
+                expectArguments(method, args, 1);
+                return "sum(" + expression(args.get(0)) + ")";
+            }
+            case "fill" -> {
+                expectArguments(method, args, 2);
+                return "java.util.Arrays.fill(" + expression(args.get(0)) + ", " + expression(args.get(1)) + ")";
+            }
+            case "copy" -> {
+                expectArguments(method, args, 2);
+                String source = expression(args.get(0));
+                return "System.arraycopy(" + source + ", 0, " + expression(args.get(1)) + ", 0, (" + source + ").length)";
+            }
+            default -> {
+                Logger.fatal("Unknown Array function: " + method.value, method.line, method.column);
+                return null;
+            }
+        }
+    }
+
+    private static void expectArguments(Token method, List<List<Token>> args, int count) {
+        if (args.size() != count) {
+            Logger.fatal("Array." + method.value + " expects " + count + " argument(s), got " + args.size(),
+                    method.line, method.column);
+        }
+    }
+
+    // Tipo CapyCode de uma expressão, com as mesmas regras de Executor.applyOp: '+' com
+    // uma STRING concatena, DOUBLE contamina o resultado e o resto exige números.
+    private String typeOf(List<Token> tokens) {
+        if (tokens.isEmpty()) {
+            Logger.fatal("Empty expression", 0, 0);
+        }
+
+        List<String> operands = new ArrayList<>();
+        boolean onlyPlus = true;
+        Token operator = null;
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            switch (token.type) {
+                case NUMBER -> operands.add("INT");
+                case FLOAT -> operands.add("DOUBLE");
+                case BOOLEAN -> operands.add("BOOLEAN");
+                case STRING -> operands.add("STRING");
+                case CHAR -> operands.add("CHAR");
+                case PLUS, MINUS, STAR, SLASH, PERCENT -> {
+                    if (token.type != TokenType.PLUS) onlyPlus = false;
+                    operator = token;
+                }
+                case LPAREN, RPAREN -> Logger.fatal("Grouping parentheses are not supported", token.line, token.column);
+                case IDENTIFIER -> {
+                    if (token.value.equals("Array") && i + 3 < tokens.size() && tokens.get(i + 1).type == TokenType.DOT) {
+                        int close = findClosing(tokens, i + 3);
+                        operands.add(arrayCallType(tokens.get(i + 2), splitArguments(tokens.subList(i + 4, close))));
+                        i = close;
+                    } else if (i + 1 < tokens.size() && tokens.get(i + 1).type == TokenType.LPAREN) {
+                        int close = findClosing(tokens, i + 1);
+                        operands.add(callType(token, splitArguments(tokens.subList(i + 2, close))));
+                        i = close;
+                    } else if (i + 1 < tokens.size() && tokens.get(i + 1).type == TokenType.LBRACKET) {
+                        int close = findClosing(tokens, i + 1);
+                        checkIndex(tokens.subList(i + 2, close), token);
+                        operands.add(elementTypeOf(token));
+                        i = close;
+                    } else {
+                        operands.add(typeOf(token));
+                    }
+                }
+                default -> Logger.fatal("Token " + token.type + " not supported in expressions by the AOT compiler",
+                        token.line, token.column);
+            }
+        }
+
+        if (operands.size() == 1 && operator == null) return operands.get(0);
+
+        if (operands.contains("STRING") || operands.contains("CHAR")) {
+            if (!onlyPlus) {
+                Logger.fatal("Only '+' can be applied to STRING values", operator.line, operator.column);
+            }
+            return "STRING";
+        }
+        for (String operand : operands) {
+            if (!operand.equals("INT") && !operand.equals("DOUBLE") && !operand.equals("FLOAT")) {
+                Logger.fatal("Operator '" + operator.value + "' cannot be applied to " + operand, operator.line, operator.column);
+            }
+        }
+        return operands.contains("DOUBLE") || operands.contains("FLOAT") ? "DOUBLE" : "INT";
+    }
+
+    private String callType(Token name, List<List<Token>> args) {
+        FunctionSig function = functions.get(name.value);
+        if (function == null) {
+            Logger.fatal("Undefined function: " + name.value, name.line, name.column);
+        }
+        if (args.size() != function.paramTypes.size()) {
+            Logger.fatal("Function '" + function.name + "' expects " + function.paramTypes.size() +
+                    " argument(s), got " + args.size(), name.line, name.column);
+        }
+        for (int i = 0; i < args.size(); i++) {
+            if (!isTypeCompatible(function.paramTypes.get(i), typeOf(args.get(i)))) {
+                Logger.fatal("Type mismatch: argument " + (i + 1) + " of '" + function.name + "' expects " +
+                        function.paramTypes.get(i), name.line, name.column);
+            }
+        }
+        return function.returnType;
+    }
+
+    private String arrayCallType(Token method, List<List<Token>> args) {
+        switch (method.value) {
+            case "new" -> {
+                expectArguments(method, args, 2);
+                if (!typeOf(args.get(1)).equals("INT")) {
+                    Logger.fatal("Array length must be a non-negative INT", method.line, method.column);
+                }
+                return args.get(0).get(0).value.toUpperCase() + "[]";
+            }
+            case "length" -> {
+                expectArguments(method, args, 1);
+                arrayArgumentType(args.get(0), method);
+                return "INT";
+            }
+            case "sum" -> {
+                expectArguments(method, args, 1);
+                String arrayType = arrayArgumentType(args.get(0), method);
+                return arrayType.substring(0, arrayType.length() - 2);
+            }
+            case "fill" -> {
+                expectArguments(method, args, 2);
+                String arrayType = arrayArgumentType(args.get(0), method);
+                String elementType = arrayType.substring(0, arrayType.length() - 2);
+                String valueType = typeOf(args.get(1));
+                if (!isTypeCompatible(elementType, valueType)) {
+                    Logger.fatal("Type mismatch: cannot fill " + elementType + " array with " + valueType, method.line, method.column);
+                }
+                return "VOID";
+            }
+            case "copy" -> {
+                expectArguments(method, args, 2);
+                String source = arrayArgumentType(args.get(0), method);
+                String target = arrayArgumentType(args.get(1), method);
+                if (!source.equals(target)) {
+                    Logger.fatal("Cannot copy " + source.substring(0, source.length() - 2) + " array into " +
+                            target.substring(0, target.length() - 2) + " array", method.line, method.column);
+                }
+                return "VOID";
+            }
+            default -> {
+                Logger.fatal("Unknown Array function: " + method.value, method.line, method.column);
+                return null;
+            }
+        }
+    }
+
+    private String arrayArgumentType(List<Token> tokens, Token method) {
+        String type = typeOf(tokens);
+        if (!type.endsWith("[]")) {
+            Logger.fatal("Expected an array argument", method.line, method.column);
+        }
+        return type;
+    }
+
+    private String elementTypeOf(Token identifier) {
+        String type = typeOf(identifier);
+        if (!type.endsWith("[]")) {
+            Logger.fatal("Variable '" + identifier.value + "' is not an array", identifier.line, identifier.column);
+        }
+        return type.substring(0, type.length() - 2);
+    }
+
+    private void checkIndex(List<Token> tokens, Token array) {
+        if (!typeOf(tokens).equals("INT")) {
+            Logger.fatal("Array index must be an INT", array.line, array.column);
+        }
+    }
+
+    private void checkReturn(List<Token> body, Token at) {
+        if (currentFunction == null) {
+            Logger.fatal("'return' outside of a function", at.line, at.column);
+        }
+        String name = currentFunction.name;
+        String expected = currentFunction.returnType;
+        if (body.size() == 1) {
+            if (!expected.equals("VOID")) {
+                Logger.fatal("Function '" + name + "' must return a " + expected, at.line, at.column);
+            }
+            return;
+        }
+        String actual = typeOf(body.subList(1, body.size()));
+        if (expected.equals("VOID")) {
+            Logger.fatal("Function '" + name + "' is VOID but returned a value", at.line, at.column);
+        }
+        if (!isTypeCompatible(expected, actual)) {
+            Logger.fatal("Type mismatch: function '" + name + "' returns " + expected + ", but returned " + actual,
+                    at.line, at.column);
+        }
+    }
+
+    // Mesmas regras de Executor.isTypeCompatible, aplicadas aos tipos estáticos
+    private static boolean isTypeCompatible(String expected, String actual) {
+        return switch (expected) {
+            case "INT" -> actual.equals("INT");
+            case "DOUBLE", "FLOAT" -> actual.equals("DOUBLE") || actual.equals("FLOAT");
+            case "CHAR" -> actual.equals("CHAR") || actual.equals("STRING");
+            default -> expected.equals(actual);
+        };
+    }
+
+    private void requireLibrary(String library, Token token) {
+        if (!importedLibs.contains(library)) {
+            Logger.fatal("Library '" + library + "' not imported. Use `using " + library + ";`", token.line, token.column);
+        }
+    }
+
+    // Funções puras não enxergam globais, como no interpretador
+    private String lookup(String name, int line, int column) {
+        if (locals != null && locals.containsKey(name)) return locals.get(name);
+        String type = globals.get(name);
+        if (type != null && currentFunction != null && currentFunction.pure) {
+            Logger.fatal("Pure function '" + currentFunction.name + "' cannot use global variable '" + name + "'", line, column);
+        }
+        return type;
+    }
+
+    private String typeOf(Token identifier) {
+        String type = lookup(identifier.value, identifier.line, identifier.column);
+        if (type == null) {
+            Logger.fatal("Undefined variable: " + identifier.value, identifier.line, identifier.column);
+        }
+        return type;
+    }
+
+    private static String javaType(String type, int line) {
+        return switch (type.toUpperCase()) {
+            case "INT" -> "int";
+            case "DOUBLE", "FLOAT" -> "double";
+            case "STRING", "CHAR" -> "String";
+            case "BOOLEAN" -> "boolean";
+            case "VOID" -> "void";
+            case "INT[]" -> "int[]";
+            case "DOUBLE[]", "FLOAT[]" -> "double[]";
+            default -> {
+                Logger.fatal("Type " + type + " is not supported by the AOT compiler", line, 0);
+                yield null;
+            }
+        };
+    }
+
+    private static String boxedType(String javaType) {
+        return switch (javaType) {
+            case "int" -> "Integer";
+            case "double" -> "Double";
+            case "boolean" -> "Boolean";
+            default -> javaType;
+        };
+    }
+
+    private static String javaName(String name) {
+        return "v_" + name;
+    }
+
+    private static String javaFunction(String name) {
+        return "f_" + name;
+    }
+
+    private static int findClosing(List<Token> tokens, int openIndex) {
+        int depth = 0;
+        for (int i = openIndex; i < tokens.size(); i++) {
+            TokenType type = tokens.get(i).type;
+            if (type == TokenType.LPAREN || type == TokenType.LBRACKET) depth++;
+            else if (type == TokenType.RPAREN || type == TokenType.RBRACKET) depth--;
+            if (depth == 0) return i;
+        }
+        Token open = tokens.get(openIndex);
+        Logger.fatal("Unbalanced parentheses or brackets", open.line, open.column);
+        return -1;
+    }
+
+    private static List<List<Token>> splitArguments(List<Token> tokens) {
+        List<List<Token>> args = new ArrayList<>();
+        if (tokens.isEmpty()) return args;
+
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            TokenType type = tokens.get(i).type;
+            if (type == TokenType.LPAREN || type == TokenType.LBRACKET) depth++;
+            else if (type == TokenType.RPAREN || type == TokenType.RBRACKET) depth--;
+            else if (depth == 0 && type == TokenType.COMMA) {
+                args.add(tokens.subList(start, i));
+                start = i + 1;
+            }
+        }
+        args.add(tokens.subList(start, tokens.size()));
+        return args;
+    }
+
+    private static String javaString(String s) {
+        StringBuilder out = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+                    else out.append(c);
+                }
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    // Funções de apoio copiadas para toda classe gerada
+    private static final String RUNTIME = """
+
+                private static java.util.Scanner in;
+
+                static String readString(String prompt) {
+                    System.out.print(prompt + " ");
+                    if (in == null) in = new java.util.Scanner(System.in);
+                    return in.nextLine();
+                }
+
+                static int readInt(String prompt) {
+                    String value = readString(prompt);
+                    try {
+                        return Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid integer input: " + value);
+                    }
+                }
+
+                static String interpolate(String s, Object... variables) {
+                    StringBuilder result = new StringBuilder();
+                    int i = 0;
+                    while (i < s.length()) {
+                        char c = s.charAt(i);
+                        int end = c == '{' ? s.indexOf('}', i) : -1;
+                        if (end == -1) {
+                            result.append(c);
+                            i++;
+                            continue;
+                        }
+                        String name = s.substring(i + 1, end).trim();
+                        String display = null;
+                        for (int v = 0; v < variables.length && display == null; v += 2) {
+                            if (variables[v].equals(name)) display = display(variables[v + 1]);
+                        }
+                        result.append(display != null ? display : "{" + name + "}");
+                        i = end + 1;
+                    }
+                    return result.toString();
+                }
+
+                static String display(Object value) {
+                    if (value instanceof int[] ints) return java.util.Arrays.toString(ints);
+                    if (value instanceof double[] doubles) return java.util.Arrays.toString(doubles);
+                    return String.valueOf(value);
+                }
+
+                static int sum(int[] values) {
+                    int total = 0;
+                    for (int v : values) total += v;
+                    return total;
+                }
+
+                static double sum(double[] values) {
+                    double total = 0;
+                    for (double v : values) total += v;
+                    return total;
+                }
+
+                static java.util.Map<java.util.List<Object>, Object> lru() {
+                    return new java.util.LinkedHashMap<>(16, 0.75f, true) {
+                        @Override
+                        protected boolean removeEldestEntry(java.util.Map.Entry<java.util.List<Object>, Object> eldest) {
+                            return size() > 256;
+                        }
+                    };
+                }
+            """;
+}
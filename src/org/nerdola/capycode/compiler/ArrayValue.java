@@ -0,0 +1,82 @@
+package org.nerdola.capycode.compiler;
+
+import java.util.Arrays;
+
+// Armazena variáveis var(INT[]) / var(DOUBLE[]). Os elementos ficam num array
+// primitivo, então o acesso por índice e as operações em lote não fazem boxing.
+public class ArrayValue {
+    public final String elementType;
+    private final int[] ints;
+    private final double[] doubles;
+
+    public ArrayValue(String elementType, int length) {
+        this.elementType = elementType;
+        switch (elementType) {
+            case "INT" -> {
+                this.ints = new int[length];
+                this.doubles = null;
+            }
+            case "DOUBLE", "FLOAT" -> {
+                this.ints = null;
+                this.doubles = new double[length];
+            }
+            default -> throw new IllegalArgumentException("Unsupported array element type: " + elementType);
+        }
+    }
+
+    public static boolean isArrayType(String type) {
+        return type.endsWith("[]");
+    }
+
+    public static String elementTypeOf(String arrayType) {
+        return arrayType.substring(0, arrayType.length() - 2);
+    }
+
+    public int length() {
+        return ints != null ? ints.length : doubles.length;
+    }
+
+    public Object get(int index) {
+        return ints != null ? (Object) ints[index] : (Object) doubles[index];
+    }
+
+    public void set(int index, Object value) {
+        if (ints != null) {
+            ints[index] = (Integer) value;
+        } else {
+            doubles[index] = ((Number) value).doubleValue();
+        }
+    }
+
+    public void fill(Object value) {
+        if (ints != null) {
+            Arrays.fill(ints, (Integer) value);
+        } else {
+            Arrays.fill(doubles, ((Number) value).doubleValue());
+        }
+    }
+
+    public void copyTo(ArrayValue target) {
+        if (ints != null) {
+            System.arraycopy(ints, 0, target.ints, 0, ints.length);
+        } else {
+            System.arraycopy(doubles, 0, target.doubles, 0, doubles.length);
+        }
+    }
+
+    public Object sum() {
+        if (ints != null) {
+            int total = 0;
+            for (int v : ints) total += v;
+            return total;
+        }
+        double total = 0;
+        for (double v : doubles) total += v;
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return ints != null ? Arrays.toString(ints) : Arrays.toString(doubles);
+    }
+}
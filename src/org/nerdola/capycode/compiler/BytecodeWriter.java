@@ -1,20 +1,33 @@
 package org.nerdola.capycode.compiler;
 
+import org.nerdola.capycode.metrics.*;
+
 import java.io.*;
 import java.util.*;
 
 public class BytecodeWriter {
     public static void write(String filename, List<Token> tokens) throws IOException {
+        WriteEvent event = new WriteEvent();
+        event.begin();
+        long start = System.nanoTime();
+
         try (BufferedWriter bw = new BufferedWriter(new FileWriter(filename))) {
             for (Token token : tokens) {
                 bw.write(formatToken(token));
                 bw.newLine();
             }
         }
+
+        long bytes = new File(filename).length();
+        event.file = filename;
+        event.tokens = tokens.size();
+        event.bytes = bytes;
+        event.commit();
+        Metrics.recordWrite(System.nanoTime() - start, bytes);
         System.out.println("[Compiler] Wrote bytecode file: " + filename);
     }
 
-    private static String formatToken(Token token) {
+    public static String formatToken(Token token) {
         String escapedValue = escapeString(token.value);
         return token.type + "('" + escapedValue + "')";
     }
@@ -0,0 +1,82 @@
+package org.nerdola.capycode.compiler;
+
+import org.nerdola.capycode.trace.*;
+
+import java.util.*;
+
+// Estado de uma execução: variáveis globais, bibliotecas importadas, funções declaradas
+// e a contagem de instruções usada para aplicar cotas
+public class ExecutionContext {
+    final Map<String, TypedVariable> globals = new HashMap<>();
+    final Set<String> importedLibs = new HashSet<>();
+    final Map<String, FunctionDef> functions = new HashMap<>();
+    final FrameStack frames = new FrameStack();
+    final boolean redeclarationAllowed;
+    TraceRecorder trace;
+
+    private long instructionCount = 0;
+    private long instructionLimit = Long.MAX_VALUE;
+    private long timeLimitNanos = 0;
+    private long runningNanos = 0;
+    private long resumedAt = 0;
+    private long deadlineNanos = 0;
+    private volatile boolean cancelRequested = false;
+
+    public ExecutionContext() {
+        this(false);
+    }
+
+    // Sessões interativas permitem redeclarar variáveis e funções
+    public ExecutionContext(boolean redeclarationAllowed) {
+        this.redeclarationAllowed = redeclarationAllowed;
+    }
+
+    // maxMillis <= 0 desativa o limite de tempo. O tempo só conta entre resumeClock() e
+    // pauseClock(), então a espera na fila do scheduler não consome a cota.
+    public void setQuota(long maxInstructions, long maxMillis) {
+        this.instructionLimit = maxInstructions;
+        this.timeLimitNanos = maxMillis > 0 ? maxMillis * 1_000_000 : 0;
+    }
+
+    public void resumeClock() {
+        if (timeLimitNanos == 0) return;
+        resumedAt = System.nanoTime();
+        deadlineNanos = resumedAt + (timeLimitNanos - runningNanos);
+    }
+
+    public void pauseClock() {
+        if (deadlineNanos == 0) return;
+        runningNanos += System.nanoTime() - resumedAt;
+        deadlineNanos = 0;
+    }
+
+    // null desativa o trace
+    public void setTrace(TraceRecorder trace) {
+        this.trace = trace;
+    }
+
+    public TraceRecorder trace() {
+        return trace;
+    }
+
+    public void cancel() {
+        cancelRequested = true;
+    }
+
+    public long instructionCount() {
+        return instructionCount;
+    }
+
+    // Chamado a cada comando executado, inclusive dentro de funções
+    void tick(int lineNumber) {
+        if (++instructionCount > instructionLimit) {
+            throw new ScriptCancelledException("Instruction quota of " + instructionLimit + " exceeded at line " + lineNumber);
+        }
+        if (cancelRequested) {
+            throw new ScriptCancelledException("Cancelled at line " + lineNumber);
+        }
+        if (deadlineNanos != 0 && System.nanoTime() - deadlineNanos > 0) {
+            throw new ScriptCancelledException("Time quota exceeded at line " + lineNumber);
+        }
+    }
+}
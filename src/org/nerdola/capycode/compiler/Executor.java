@@ -1,58 +1,286 @@
 package org.nerdola.capycode.compiler;
 
+import org.nerdola.capycode.metrics.*;
+import org.nerdola.capycode.trace.*;
+
 import java.io.*;
 import java.util.*;
 
 public class Executor {
 
-    public static boolean DEBUG = false;
-
     public static void run(String filename) throws IOException {
-        List<String> lines = java.nio.file.Files.readAllLines(new File(filename).toPath());
-        Map<String, TypedVariable> variables = new HashMap<>();
-        Set<String> importedLibs = new HashSet<>();
-        List<String> commandTokens = new ArrayList<>();
-        int lineNumber = 0;
+        run(filename, false);
+    }
+
+    public static void run(String filename, boolean trace) throws IOException {
+        Script script = Script.load(filename);
+        if (trace) {
+            script.context().setTrace(new TraceRecorder(TraceRecorder.DEFAULT_CAPACITY, TraceRecorder.pathFor(filename)));
+        }
+        try {
+            while (script.hasNext()) {
+                script.step();
+            }
+        } catch (RuntimeException | Error e) {
+            script.finish("FAILED");
+            throw e;
+        }
+        script.finish("COMPLETED");
+    }
+
+    // Executa tokens vindos direto do Lexer, mantendo o estado de ctx entre chamadas
+    public static void execute(List<Token> tokens, ExecutionContext ctx) {
+        List<String> tokenLines = new ArrayList<>(tokens.size());
+        int[] lineNumbers = new int[tokens.size()];
+        for (Token token : tokens) {
+            lineNumbers[tokenLines.size()] = token.line;
+            tokenLines.add(BytecodeWriter.formatToken(token));
+        }
+
+        for (Statement statement : parse(tokenLines, lineNumbers)) {
+            executeStatement(statement, ctx);
+        }
+    }
+
+    static List<Statement> parse(List<String> tokenLines, int[] lineNumbers) {
+        List<Statement> statements = new ArrayList<>();
+        int start = 0;
+        boolean inFunction = false;
 
-        for (String line : lines) {
-            lineNumber++;
-            line = line.trim();
-            if (DEBUG) System.out.println("[DEBUG] Line " + lineNumber + ": " + line);
+        for (int i = 0; i < tokenLines.size(); i++) {
+            String line = tokenLines.get(i).trim();
 
             if (line.equals("EOF('')")) break;
 
-            if (line.startsWith("USING(")) {
-                String libName = extractTokenValue(line);
-                importedLibs.add(libName);
+            if (i == start) {
+                if (line.startsWith("USING(")) {
+                    statements.add(new Statement(List.of(line), new int[] { lineNumbers[i] }));
+                    start = i + 1;
+                    continue;
+                }
+                // func ... { ... } é acumulado até o '}' e só então declarado
+                inFunction = line.startsWith("FUNC(") || line.startsWith("PURE(");
+            }
 
-                if (DEBUG) System.out.println("[DEBUG] Imported library: " + libName);
+            if (inFunction ? line.startsWith("RBRACE(") : line.startsWith("SEMICOLON(")) {
+                List<String> tokens = new ArrayList<>(i + 1 - start);
+                for (int j = start; j <= i; j++) {
+                    tokens.add(tokenLines.get(j).trim());
+                }
+                statements.add(new Statement(tokens, Arrays.copyOfRange(lineNumbers, start, i + 1)));
+                start = i + 1;
+            }
+        }
+        return statements;
+    }
+
+    static void executeStatement(Statement statement, ExecutionContext ctx) {
+        if (ctx.trace == null) {
+            runStatement(statement, ctx);
+            return;
+        }
 
-                continue;
+        // Um erro fatal grava o trace antes de o FatalError subir
+        Logger.setFatalHook(ctx.trace);
+        try {
+            runStatement(statement, ctx);
+        } finally {
+            Logger.setFatalHook(null);
+        }
+    }
+
+    private static void runStatement(Statement statement, ExecutionContext ctx) {
+        if (statement.isImport()) {
+            String libName = extractTokenValue(statement.tokens.get(0));
+            ctx.importedLibs.add(libName);
+
+            if (ctx.trace != null) ctx.trace.record(statement.lineNumber, TraceOp.IMPORT, libName, null);
+        } else if (statement.isFunctionDeclaration()) {
+            defineFunction(statement, ctx);
+        } else {
+            executeCommand(statement.tokens, ctx.globals, ctx, statement.lineNumber);
+        }
+    }
+
+    private static void defineFunction(Statement statement, ExecutionContext ctx) {
+        List<String> tokens = statement.tokens;
+        int[] lines = statement.tokenLines;
+        int i = 0;
+        boolean pure = tokens.get(i).startsWith("PURE(");
+        if (pure) i++;
+
+        if (!tokens.get(i).startsWith("FUNC(")) {
+            Logger.fatal("Expected 'func' after 'pure'", lines[i], 0);
+        }
+        i++;
+
+        if (tokens.size() < i + 5 || !tokens.get(i).startsWith("IDENTIFIER(") || !tokens.get(i + 1).startsWith("IDENTIFIER(")) {
+            Logger.fatal("Invalid function declaration: expected 'func(TYPE) NAME(...) { ... }'", lines[0], 0);
+        }
+        String returnType = extractTokenValue(tokens.get(i)).toUpperCase();
+        String name = extractTokenValue(tokens.get(i + 1));
+        i += 2;
+
+        if (ctx.functions.containsKey(name)) {
+            if (!ctx.redeclarationAllowed) {
+                Logger.fatal("Function '" + name + "' already declared", lines[0], 0);
+            }
+            // Outras funções puras podem ter memorizado resultados da versão antiga
+            for (FunctionDef function : ctx.functions.values()) {
+                if (function.isPure()) function.memo.clear();
+            }
+        }
+        if (!tokens.get(i).startsWith("LPAREN(")) {
+            Logger.fatal("Expected '(' after function name '" + name + "'", lines[i], 0);
+        }
+
+        int close = findClosing(tokens, i, lines[i]);
+        List<String> paramTypes = new ArrayList<>();
+        List<String> paramNames = new ArrayList<>();
+        for (List<String> param : splitArguments(tokens.subList(i + 1, close))) {
+            if (!param.isEmpty() && param.get(0).startsWith("IDENTIFIER(") && extractTokenValue(param.get(0)).equalsIgnoreCase("MAP")) {
+                Logger.fatal("MAP parameters are not supported (function '" + name + "')", lines[i], 0);
             }
+            boolean isArray = param.size() == 4 && param.get(1).startsWith("LBRACKET(") && param.get(2).startsWith("RBRACKET(");
+            if ((param.size() != 2 && !isArray) || !param.get(0).startsWith("IDENTIFIER(") || !param.get(param.size() - 1).startsWith("IDENTIFIER(")) {
+                Logger.fatal("Invalid parameter in function '" + name + "': expected 'TYPE NAME'", lines[i], 0);
+            }
+            String type = extractTokenValue(param.get(0)).toUpperCase();
+            paramTypes.add(isArray ? type + "[]" : type);
+            paramNames.add(extractTokenValue(param.get(param.size() - 1)));
+        }
 
-            commandTokens.add(line);
-            if (DEBUG) System.out.println("[DEBUG] Added token: " + line);
+        if (close + 1 >= tokens.size() || !tokens.get(close + 1).startsWith("LBRACE(")) {
+            Logger.fatal("Expected '{' to open body of function '" + name + "'", lines[close], 0);
+        }
 
-            if (line.startsWith("SEMICOLON(")) {
-                if (DEBUG) System.out.println("[DEBUG] Executing command at line " + lineNumber + ": " + commandTokens);
-                executeCommand(commandTokens, variables, importedLibs, lineNumber);
-                commandTokens.clear();
+        List<Statement> body = new ArrayList<>();
+        int statementStart = close + 2;
+        for (int j = statementStart; j < tokens.size() - 1; j++) {
+            if (tokens.get(j).startsWith("SEMICOLON(")) {
+                body.add(new Statement(new ArrayList<>(tokens.subList(statementStart, j + 1)), lines[j]));
+                statementStart = j + 1;
             }
         }
+        if (statementStart != tokens.size() - 1) {
+            Logger.fatal("Expected ';' before '}' in function '" + name + "'", lines[tokens.size() - 1], 0);
+        }
+
+        ctx.functions.put(name, new FunctionDef(name, returnType, paramTypes, paramNames, body, pure));
+
+        if (ctx.trace != null) ctx.trace.recordInt(statement.lineNumber, TraceOp.DEFINE, name, paramTypes.size());
+    }
+
+    private static Object callFunction(FunctionDef function, List<List<String>> argTokens,
+                                       Map<String, TypedVariable> variables,
+                                       ExecutionContext ctx, int lineNumber) {
+        if (argTokens.size() != function.arity()) {
+            Logger.fatal("Function '" + function.name + "' expects " + function.arity() +
+                    " argument(s), got " + argTokens.size(), lineNumber, 0);
+        }
+
+        Object[] args = new Object[argTokens.size()];
+        boolean cacheable = function.isPure();
+        for (int i = 0; i < args.length; i++) {
+            args[i] = evaluateExpression(argTokens.get(i), variables, ctx, lineNumber);
+            if (!isTypeCompatible(function.paramTypes.get(i), args[i])) {
+                Logger.fatal("Type mismatch: argument " + (i + 1) + " of '" + function.name + "' expects " +
+                        function.paramTypes.get(i), lineNumber, 0);
+            }
+            // Arrays e maps são mutáveis, então chamadas com eles nunca vão para o cache
+            if (args[i] instanceof ArrayValue || args[i] instanceof MapValue) cacheable = false;
+        }
+
+        List<Object> key = cacheable ? List.of(args) : null;
+        if (key != null && function.memo.containsKey(key)) {
+            Object cached = function.memo.get(key);
+            if (ctx.trace != null) ctx.trace.record(lineNumber, TraceOp.MEMO_HIT, function.name, cached);
+            return cached;
+        }
+
+        if (ctx.trace != null) ctx.trace.recordInt(lineNumber, TraceOp.CALL, function.name, args.length);
+        Frame frame = ctx.frames.push(function, ctx.globals, lineNumber);
+        Object result;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                TypedVariable param = new TypedVariable(function.paramTypes.get(i), null);
+                assign(param, args[i]);
+                frame.slots[i] = param;
+            }
+
+            for (Statement statement : function.body) {
+                frame.lineNumber = statement.lineNumber;
+                executeCommand(statement.tokens, frame, ctx, statement.lineNumber);
+                if (frame.returned) break;
+            }
+
+            result = frame.returnValue;
+        } catch (StackOverflowError e) {
+            // Cada chamada usa vários frames Java, então a pilha da JVM pode acabar antes de
+            // MAX_DEPTH. Só a chamada mais externa converte o erro, onde ainda há pilha para o fatal.
+            if (ctx.frames.depth() > 1) throw e;
+            Logger.fatal("Stack overflow calling '" + function.name + "'", lineNumber, 0);
+            return null;
+        } finally {
+            ctx.frames.pop();
+        }
+
+        if (function.returnType.equals("VOID")) {
+            if (result != null) {
+                Logger.fatal("Function '" + function.name + "' is VOID but returned a value", lineNumber, 0);
+            }
+            return null;
+        }
+        if (result == null) {
+            Logger.fatal("Function '" + function.name + "' must return a " + function.returnType, lineNumber, 0);
+        }
+        if (!isTypeCompatible(function.returnType, result)) {
+            Logger.fatal("Type mismatch: function '" + function.name + "' returns " + function.returnType +
+                    ", but returned " + result.getClass().getSimpleName(), lineNumber, 0);
+        }
+
+        if (key != null && !(result instanceof ArrayValue) && !(result instanceof MapValue)) {
+            function.memo.put(key, result);
+        }
+        return result;
     }
 
     private static void executeCommand(List<String> tokens,
                                        Map<String, TypedVariable> variables,
-                                       Set<String> importedLibs,
+                                       ExecutionContext ctx,
                                        int lineNumber) {
         if (tokens.isEmpty()) return;
+        ctx.tick(lineNumber);
+        if (ctx.trace != null) ctx.trace.recordInt(lineNumber, TraceOp.STATEMENT, null, ctx.instructionCount());
+
+        // Só um a cada SAMPLE_INTERVAL comandos vira evento JFR
+        if (ctx.instructionCount() % StatementEvent.SAMPLE_INTERVAL != 0) {
+            dispatchCommand(tokens, variables, ctx, lineNumber);
+            return;
+        }
+
+        StatementEvent event = new StatementEvent();
+        event.begin();
+        try {
+            dispatchCommand(tokens, variables, ctx, lineNumber);
+        } finally {
+            event.line = lineNumber;
+            event.operation = tokens.get(0).substring(0, tokens.get(0).indexOf('('));
+            event.commit();
+        }
+    }
+
+    private static void dispatchCommand(List<String> tokens,
+                                        Map<String, TypedVariable> variables,
+                                        ExecutionContext ctx,
+                                        int lineNumber) {
         String first = tokens.get(0);
 
         if (tokens.size() >= 6 && tokens.get(0).startsWith("VAR(")) {
             String type = extractTokenValue(tokens.get(1));
             String varName = extractTokenValue(tokens.get(2));
 
-            if (variables.containsKey(varName)) {
+            if (variables.containsKey(varName) && !ctx.redeclarationAllowed) {
                 Logger.fatal("Variable '" + varName + "' já declarada", lineNumber, 0);
                 return;
             }
@@ -63,24 +291,42 @@ public class Executor {
             }
 
             List<String> exprTokens = tokens.subList(4, tokens.size() - 1);
-            Object value = evaluateExpression(exprTokens, variables, importedLibs, lineNumber);
+            Object value = evaluateExpression(exprTokens, variables, ctx, lineNumber);
 
             if (!isTypeCompatible(type, value)) {
                 Logger.fatal("Tipo incompatível para variável '" + varName + "'", lineNumber, 0);
                 return;
             }
 
-            variables.put(varName, new TypedVariable(type, value.toString()));
+            TypedVariable declared = new TypedVariable(type, null);
+            assign(declared, value);
+            variables.put(varName, declared);
 
-            if (DEBUG) {
-                System.out.println("[DEBUG] Declarada variável: " + varName + " tipo: " + type + " valor: " + value);
-            }
+            if (ctx.trace != null) ctx.trace.record(lineNumber, TraceOp.DECLARE, varName, value);
 
             return;
         }
 
         try {
-            if (DEBUG) System.out.println("[DEBUG] Executing tokens: " + tokens);
+            if (first.startsWith("RETURN(")) {
+                if (!(variables instanceof Frame frame)) {
+                    Logger.fatal("'return' outside of a function", lineNumber, 0);
+                    return;
+                }
+                List<String> exprTokens = tokens.subList(1, tokens.size() - 1);
+                frame.returnValue = exprTokens.isEmpty() ? null : evaluateExpression(exprTokens, variables, ctx, lineNumber);
+                frame.returned = true;
+
+                if (ctx.trace != null) ctx.trace.record(lineNumber, TraceOp.RETURN, frame.function.name, frame.returnValue);
+                return;
+            }
+
+            // NOME(args); chamada de função como comando
+            if (first.startsWith("IDENTIFIER(") && tokens.size() >= 3 && tokens.get(1).startsWith("LPAREN(") &&
+                ctx.functions.containsKey(extractTokenValue(first))) {
+                evaluateExpression(tokens.subList(0, tokens.size() - 1), variables, ctx, lineNumber);
+                return;
+            }
 
             if (first.startsWith("IDENTIFIER(") && tokens.size() >= 4 && tokens.get(1).startsWith("EQUAL(")) {
                 String varName = extractTokenValue(tokens.get(0));
@@ -89,8 +335,6 @@ public class Executor {
                     Logger.fatal("Variable '" + varName + "' is not declared", lineNumber, 0);
                 }
 
-                if (DEBUG) System.out.println("[DEBUG] Assigning to variable '" + varName + "'");
-
                 // ✅ Intercepta reatribuição do tipo: NOME = Output.input("...")(TIPO);
                 if (tokens.size() >= 11 &&
                     tokens.get(2).startsWith("IDENTIFIER('Output')") &&
@@ -103,7 +347,7 @@ public class Executor {
                     tokens.get(9).startsWith("IDENTIFIER(") &&
                     tokens.get(10).startsWith("RPAREN(")) {
 
-                    if (!importedLibs.contains("Output")) {
+                    if (!ctx.importedLibs.contains("Output")) {
                         Logger.fatal("Library 'Output' not imported. Use `using Output;`", lineNumber, 0);
                     }
 
@@ -114,7 +358,7 @@ public class Executor {
                     Scanner scanner = new Scanner(System.in);
                     String inputValue = scanner.nextLine();
 
-                    if (DEBUG) System.out.println("[DEBUG] Input received: " + inputValue);
+                    if (ctx.trace != null) ctx.trace.record(lineNumber, TraceOp.INPUT, varName, inputValue);
 
                     Object value;
                     switch (expectedType) {
@@ -139,27 +383,58 @@ public class Executor {
                                 ", but tried to assign " + value.getClass().getSimpleName(), lineNumber, 0);
                     }
 
-                    existing.value = value.toString();
+                    assign(existing, value);
 
-                    if (DEBUG) System.out.println("[DEBUG] Updated variable: " + varName + " = " + existing.value);
+                    if (ctx.trace != null) ctx.trace.record(lineNumber, TraceOp.ASSIGN, varName, value);
                     return;
                 }
 
                 // Avaliação de expressão padrão
                 List<String> exprTokens = tokens.subList(2, tokens.size() - 1);
 
-                if (DEBUG) System.out.println("[DEBUG] Evaluating expression for assignment: " + exprTokens);
-
-                Object result = evaluateExpression(exprTokens, variables, importedLibs, lineNumber);
+                Object result = evaluateExpression(exprTokens, variables, ctx, lineNumber);
 
                 if (!isTypeCompatible(existing.type, result)) {
                     Logger.fatal("Type mismatch: variable '" + varName + "' is of type " + existing.type +
                             ", but tried to assign " + result.getClass().getSimpleName(), lineNumber, 0);
                 }
 
-                existing.value = result.toString();
+                assign(existing, result);
+
+                if (ctx.trace != null) ctx.trace.record(lineNumber, TraceOp.ASSIGN, varName, result);
+                return;
+            }
+
+            // NOME[indice] = valor;
+            if (first.startsWith("IDENTIFIER(") && tokens.size() >= 2 && tokens.get(1).startsWith("LBRACKET(")) {
+                String varName = extractTokenValue(first);
+                ArrayValue array = lookupArray(varName, variables, lineNumber);
+                int close = findClosing(tokens, 1, lineNumber);
+                if (close + 1 >= tokens.size() || !tokens.get(close + 1).startsWith("EQUAL(")) {
+                    Logger.fatal("Expected '=' after index of array '" + varName + "'", lineNumber, 0);
+                }
+
+                int index = evaluateIndex(tokens.subList(2, close), array, varName, variables, ctx, lineNumber);
+                Object value = evaluateExpression(tokens.subList(close + 2, tokens.size() - 1), variables, ctx, lineNumber);
+
+                if (!isTypeCompatible(array.elementType, value)) {
+                    Logger.fatal("Type mismatch: array '" + varName + "' holds " + array.elementType +
+                            ", but tried to store " + value.getClass().getSimpleName(), lineNumber, 0);
+                }
+
+                array.set(index, value);
 
-                if (DEBUG) System.out.println("[DEBUG] Variable '" + varName + "' updated to: " + existing.value);
+                if (ctx.trace != null) {
+                    ctx.trace.recordInt(lineNumber, TraceOp.INDEX, varName, index);
+                    ctx.trace.record(lineNumber, TraceOp.STORE, varName, value);
+                }
+                return;
+            }
+
+            // Array.fill / Array.copy / Map.put
+            if ((first.startsWith("IDENTIFIER('Array')") || first.startsWith("IDENTIFIER('Map')")) &&
+                tokens.size() >= 2 && tokens.get(1).startsWith("DOT(")) {
+                evaluateExpression(tokens.subList(0, tokens.size() - 1), variables, ctx, lineNumber);
                 return;
             }
 
@@ -167,30 +442,33 @@ public class Executor {
             if (first.startsWith("IDENTIFIER(")) {
                 String identifier = extractTokenValue(tokens.get(0));
                 if (identifier.equals("Output") && tokens.size() >= 5 && tokens.get(1).startsWith("DOT(")) {
-                    if (!importedLibs.contains("Output")) {
+                    if (!ctx.importedLibs.contains("Output")) {
                         Logger.fatal("Library 'Output' not imported. Use `using Output;`", lineNumber, 0);
                     }
 
                     String methodName = extractTokenValue(tokens.get(2));
+                    List<String> argTokens = tokens.subList(4, Math.max(4, tokens.size() - 2));
                     String argToken = tokens.get(4);
                     String arg;
 
-                    if (argToken.startsWith("IDENTIFIER(")) {
+                    if (argTokens.size() > 1) {
+                        arg = String.valueOf(evaluateExpression(argTokens, variables, ctx, lineNumber));
+                    } else if (argToken.startsWith("IDENTIFIER(")) {
                         String varName = extractTokenValue(argToken);
                         TypedVariable var = variables.get(varName);
                         if (var == null) {
                             Logger.fatal("Variable '" + varName + "' not found", lineNumber, 0);
                         }
-                        arg = var.value;
+                        arg = displayValue(var);
                     } else if (argToken.startsWith("STRING(")) {
                         arg = unescapeString(extractTokenValue(argToken));
                     } else {
-                        arg = String.valueOf(evaluateExpression(Collections.singletonList(argToken), variables, importedLibs, lineNumber));
+                        arg = String.valueOf(evaluateExpression(Collections.singletonList(argToken), variables, ctx, lineNumber));
                     }
 
                     arg = interpolateString(arg, variables);
 
-                    if (DEBUG) System.out.println("[DEBUG] Output." + methodName + " with argument: " + arg);
+                    if (ctx.trace != null) ctx.trace.record(lineNumber, TraceOp.OUTPUT, "Output." + methodName, arg);
 
                     if (methodName.equals("print")) System.out.print(arg);
                     else if (methodName.equals("println")) System.out.println(arg);
@@ -203,25 +481,25 @@ public class Executor {
             if (first.startsWith("PRINT(")) {
                 String valueToken = extractTokenValue(tokens.get(1));
                 TypedVariable var = variables.get(valueToken);
-                String value = var != null ? var.value : valueToken;
+                String value = var != null ? displayValue(var) : valueToken;
                 value = interpolateString(value, variables);
-                if (DEBUG) System.out.println("[DEBUG] PRINT with value: " + value);
+                if (ctx.trace != null) ctx.trace.record(lineNumber, TraceOp.OUTPUT, "print", value);
                 System.out.println(value);
                 return;
             }
 
+        } catch (FatalError | ScriptCancelledException ex) {
+            throw ex;
         } catch (RuntimeException ex) {
             Logger.fatal("Runtime error: " + ex.getMessage(), lineNumber, 0);
         }
     }
 
-    private static String extractTokenValue(String tokenLine) {
+    static String extractTokenValue(String tokenLine) {
         int start = tokenLine.indexOf("('") + 2;
         int end = tokenLine.indexOf("')", start);
         String value = tokenLine.substring(start, end);
 
-        if (DEBUG) System.out.println("[DEBUG] Extracted token value: " + value + " from token: " + tokenLine);
-
         if (tokenLine.startsWith("STRING(")) {
             if (value.startsWith("\"") && value.endsWith("\"")) {
                 value = value.substring(1, value.length() - 1);
@@ -231,42 +509,78 @@ public class Executor {
         return value;
     }
 
-    private static Object evaluateExpression(List<String> tokens, Map<String, TypedVariable> variables, Set<String> importedLibs, int lineNumber) {
+    private static Object evaluateExpression(List<String> tokens, Map<String, TypedVariable> variables, ExecutionContext ctx, int lineNumber) {
         Stack<Object> values = new Stack<>();
         Stack<String> ops = new Stack<>();
 
-        if (DEBUG) System.out.println("[DEBUG] Evaluating expression tokens: " + tokens);
-
-        for (String token : tokens) {
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
             if (token.startsWith("NUMBER(")) {
                 int v = Integer.parseInt(extractTokenValue(token));
                 values.push(v);
-                if (DEBUG) System.out.println("[DEBUG] Pushed number: " + v);
+            } else if (token.startsWith("FLOAT(")) {
+                double v = Double.parseDouble(extractTokenValue(token));
+                values.push(v);
             } else if (token.startsWith("STRING(")) {
                 String v = unescapeString(extractTokenValue(token));
                 values.push(v);
-                if (DEBUG) System.out.println("[DEBUG] Pushed string: " + v);
+            } else if (token.startsWith("BOOLEAN(")) {
+                values.push(Boolean.parseBoolean(extractTokenValue(token)));
             } else if (token.startsWith("IDENTIFIER(")) {
                 String name = extractTokenValue(token);
 
+                if (name.equals("Array") && i + 3 < tokens.size() && tokens.get(i + 1).startsWith("DOT(")) {
+                    int close = findClosing(tokens, i + 3, lineNumber);
+                    String method = extractTokenValue(tokens.get(i + 2));
+                    List<List<String>> args = splitArguments(tokens.subList(i + 4, close));
+                    values.push(callArrayFunction(method, args, variables, ctx, lineNumber));
+                    i = close;
+                    continue;
+                }
+
+                if (name.equals("Map") && i + 3 < tokens.size() && tokens.get(i + 1).startsWith("DOT(")) {
+                    int close = findClosing(tokens, i + 3, lineNumber);
+                    String method = extractTokenValue(tokens.get(i + 2));
+                    List<List<String>> args = splitArguments(tokens.subList(i + 4, close));
+                    values.push(callMapFunction(method, args, variables, ctx, lineNumber));
+                    i = close;
+                    continue;
+                }
+
                 if (name.equals("Output")) {
-                    if (!importedLibs.contains("Output")) {
+                    if (!ctx.importedLibs.contains("Output")) {
                         Logger.fatal("Library 'Output' not imported. Use `using Output;`", lineNumber, 0);
                     }
                     Logger.fatal("Invalid use of 'Output' as variable in expression", lineNumber, 0);
                 }
 
+                if (i + 1 < tokens.size() && tokens.get(i + 1).startsWith("LPAREN(")) {
+                    FunctionDef function = ctx.functions.get(name);
+                    if (function == null) {
+                        Logger.fatal("Undefined function: " + name, lineNumber, 0);
+                    }
+                    int close = findClosing(tokens, i + 1, lineNumber);
+                    List<List<String>> args = splitArguments(tokens.subList(i + 2, close));
+                    values.push(callFunction(function, args, variables, ctx, lineNumber));
+                    i = close;
+                    continue;
+                }
+
                 TypedVariable var = variables.get(name);
                 if (var == null) {
                     Logger.fatal("Undefined variable: " + name, lineNumber, 0);
                 }
-                String val = var.value;
-                try {
-                    int vi = Integer.parseInt(val);
-                    values.push(vi);
-                } catch (NumberFormatException e) {
-                    values.push(val);
+
+                if (i + 1 < tokens.size() && tokens.get(i + 1).startsWith("LBRACKET(")) {
+                    ArrayValue array = lookupArray(name, variables, lineNumber);
+                    int close = findClosing(tokens, i + 1, lineNumber);
+                    int index = evaluateIndex(tokens.subList(i + 2, close), array, name, variables, ctx, lineNumber);
+                    values.push(array.get(index));
+                    i = close;
+                    continue;
                 }
+
+                values.push(readVariable(var));
             } else if (isOperator(token)) {
                 String op = getOperator(token);
                 while (!ops.isEmpty() && precedence(ops.peek()) >= precedence(op)) {
@@ -285,6 +599,222 @@ public class Executor {
         return values.pop();
     }
 
+    private static Object callArrayFunction(String method, List<List<String>> args,
+                                            Map<String, TypedVariable> variables,
+                                            ExecutionContext ctx, int lineNumber) {
+        if (!ctx.importedLibs.contains("Array")) {
+            Logger.fatal("Library 'Array' not imported. Use `using Array;`", lineNumber, 0);
+        }
+
+        if (ctx.trace != null) ctx.trace.recordInt(lineNumber, TraceOp.CALL, "Array." + method, args.size());
+
+        switch (method) {
+            case "new" -> {
+                expectArguments("Array.new", args, 2, lineNumber);
+                String elementType = extractTokenValue(args.get(0).get(0)).toUpperCase();
+                Object length = evaluateExpression(args.get(1), variables, ctx, lineNumber);
+                if (!(length instanceof Integer n) || n < 0) {
+                    Logger.fatal("Array length must be a non-negative INT", lineNumber, 0);
+                    return null;
+                }
+                try {
+                    return new ArrayValue(elementType, n);
+                } catch (IllegalArgumentException e) {
+                    Logger.fatal(e.getMessage(), lineNumber, 0);
+                    return null;
+                }
+            }
+            case "length" -> {
+                expectArguments("Array.length", args, 1, lineNumber);
+                return arrayArgument(args.get(0), variables, ctx, lineNumber).length();
+            }
+            case "sum" -> {
+                expectArguments("Array.sum", args, 1, lineNumber);
+                return arrayArgument(args.get(0), variables, ctx, lineNumber).sum();
+            }
+            case "fill" -> {
+                expectArguments("Array.fill", args, 2, lineNumber);
+                ArrayValue array = arrayArgument(args.get(0), variables, ctx, lineNumber);
+                Object value = evaluateExpression(args.get(1), variables, ctx, lineNumber);
+                if (!isTypeCompatible(array.elementType, value)) {
+                    Logger.fatal("Type mismatch: cannot fill " + array.elementType + " array with " +
+                            value.getClass().getSimpleName(), lineNumber, 0);
+                }
+                array.fill(value);
+                return null;
+            }
+            case "copy" -> {
+                expectArguments("Array.copy", args, 2, lineNumber);
+                ArrayValue source = arrayArgument(args.get(0), variables, ctx, lineNumber);
+                ArrayValue target = arrayArgument(args.get(1), variables, ctx, lineNumber);
+                if (!source.elementType.equals(target.elementType)) {
+                    Logger.fatal("Cannot copy " + source.elementType + " array into " + target.elementType + " array", lineNumber, 0);
+                }
+                if (target.length() < source.length()) {
+                    Logger.fatal("Target array too small: " + target.length() + " < " + source.length(), lineNumber, 0);
+                }
+                source.copyTo(target);
+                return null;
+            }
+            default -> {
+                Logger.fatal("Unknown Array function: " + method, lineNumber, 0);
+                return null;
+            }
+        }
+    }
+
+    private static Object callMapFunction(String method, List<List<String>> args,
+                                          Map<String, TypedVariable> variables,
+                                          ExecutionContext ctx, int lineNumber) {
+        if (!ctx.importedLibs.contains("Map")) {
+            Logger.fatal("Library 'Map' not imported. Use `using Map;`", lineNumber, 0);
+        }
+
+        if (ctx.trace != null) ctx.trace.recordInt(lineNumber, TraceOp.CALL, "Map." + method, args.size());
+
+        switch (method) {
+            case "new" -> {
+                expectArguments("Map.new", args, 2, lineNumber);
+                String keyType = extractTokenValue(args.get(0).get(0)).toUpperCase();
+                String valueType = extractTokenValue(args.get(1).get(0)).toUpperCase();
+                try {
+                    return MapValue.create(keyType, valueType);
+                } catch (IllegalArgumentException e) {
+                    Logger.fatal(e.getMessage(), lineNumber, 0);
+                    return null;
+                }
+            }
+            case "size" -> {
+                expectArguments("Map.size", args, 1, lineNumber);
+                return mapArgument(args.get(0), variables, ctx, lineNumber).size();
+            }
+            case "contains" -> {
+                expectArguments("Map.contains", args, 2, lineNumber);
+                MapValue map = mapArgument(args.get(0), variables, ctx, lineNumber);
+                return map.containsKey(mapKey(map, args.get(1), variables, ctx, lineNumber));
+            }
+            case "get" -> {
+                expectArguments("Map.get", args, 2, lineNumber);
+                MapValue map = mapArgument(args.get(0), variables, ctx, lineNumber);
+                Object key = mapKey(map, args.get(1), variables, ctx, lineNumber);
+                Object value = map.get(key);
+                if (value == null) {
+                    Logger.fatal("Key '" + key + "' not found in map", lineNumber, 0);
+                }
+                return value;
+            }
+            case "put" -> {
+                expectArguments("Map.put", args, 3, lineNumber);
+                MapValue map = mapArgument(args.get(0), variables, ctx, lineNumber);
+                Object key = mapKey(map, args.get(1), variables, ctx, lineNumber);
+                Object value = evaluateExpression(args.get(2), variables, ctx, lineNumber);
+                if (!isTypeCompatible(map.valueType, value)) {
+                    Logger.fatal("Type mismatch: map holds " + map.valueType + " values, but tried to put " +
+                            value.getClass().getSimpleName(), lineNumber, 0);
+                }
+                map.put(key, value);
+                return null;
+            }
+            default -> {
+                Logger.fatal("Unknown Map function: " + method, lineNumber, 0);
+                return null;
+            }
+        }
+    }
+
+    private static MapValue mapArgument(List<String> tokens, Map<String, TypedVariable> variables,
+                                        ExecutionContext ctx, int lineNumber) {
+        Object value = evaluateExpression(tokens, variables, ctx, lineNumber);
+        if (!(value instanceof MapValue map)) {
+            Logger.fatal("Expected a map argument", lineNumber, 0);
+            return null;
+        }
+        return map;
+    }
+
+    private static Object mapKey(MapValue map, List<String> tokens, Map<String, TypedVariable> variables,
+                                 ExecutionContext ctx, int lineNumber) {
+        Object key = evaluateExpression(tokens, variables, ctx, lineNumber);
+        if (!isTypeCompatible(map.keyType, key)) {
+            Logger.fatal("Type mismatch: map has " + map.keyType + " keys, but got " +
+                    key.getClass().getSimpleName(), lineNumber, 0);
+        }
+        return key;
+    }
+
+    private static void expectArguments(String function, List<List<String>> args, int count, int lineNumber) {
+        if (args.size() != count) {
+            Logger.fatal(function + " expects " + count + " argument(s), got " + args.size(), lineNumber, 0);
+        }
+    }
+
+    private static ArrayValue arrayArgument(List<String> tokens, Map<String, TypedVariable> variables,
+                                            ExecutionContext ctx, int lineNumber) {
+        Object value = evaluateExpression(tokens, variables, ctx, lineNumber);
+        if (!(value instanceof ArrayValue array)) {
+            Logger.fatal("Expected an array argument", lineNumber, 0);
+            return null;
+        }
+        return array;
+    }
+
+    private static ArrayValue lookupArray(String name, Map<String, TypedVariable> variables, int lineNumber) {
+        TypedVariable var = variables.get(name);
+        if (var == null) {
+            Logger.fatal("Undefined variable: " + name, lineNumber, 0);
+        }
+        if (var.array == null) {
+            Logger.fatal("Variable '" + name + "' is not an array", lineNumber, 0);
+        }
+        return var.array;
+    }
+
+    private static int evaluateIndex(List<String> tokens, ArrayValue array, String name,
+                                     Map<String, TypedVariable> variables,
+                                     ExecutionContext ctx, int lineNumber) {
+        Object index = evaluateExpression(tokens, variables, ctx, lineNumber);
+        if (!(index instanceof Integer i)) {
+            Logger.fatal("Array index must be an INT", lineNumber, 0);
+            return -1;
+        }
+        if (i < 0 || i >= array.length()) {
+            Logger.fatal("Index " + i + " out of bounds for array '" + name + "' of length " + array.length(), lineNumber, 0);
+        }
+        return i;
+    }
+
+    // Índice do token que fecha o parêntese/colchete aberto em openIndex
+    private static int findClosing(List<String> tokens, int openIndex, int lineNumber) {
+        int depth = 0;
+        for (int i = openIndex; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token.startsWith("LPAREN(") || token.startsWith("LBRACKET(")) depth++;
+            else if (token.startsWith("RPAREN(") || token.startsWith("RBRACKET(")) depth--;
+            if (depth == 0) return i;
+        }
+        Logger.fatal("Unbalanced parentheses or brackets", lineNumber, 0);
+        return -1;
+    }
+
+    private static List<List<String>> splitArguments(List<String> tokens) {
+        List<List<String>> args = new ArrayList<>();
+        if (tokens.isEmpty()) return args;
+
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token.startsWith("LPAREN(") || token.startsWith("LBRACKET(")) depth++;
+            else if (token.startsWith("RPAREN(") || token.startsWith("RBRACKET(")) depth--;
+            else if (depth == 0 && token.startsWith("COMMA(")) {
+                args.add(tokens.subList(start, i));
+                start = i + 1;
+            }
+        }
+        args.add(tokens.subList(start, tokens.size()));
+        return args;
+    }
+
     private static boolean isOperator(String token) {
         return token.startsWith("PLUS(") || token.startsWith("MINUS(") ||
                token.startsWith("STAR(") || token.startsWith("SLASH(") ||
@@ -311,12 +841,21 @@ public class Executor {
     private static void applyOp(Stack<Object> values, String op) {
         Object b = values.pop();
         Object a = values.pop();
-        if (op.equals("PLUS")) {
-            if (a instanceof String || b instanceof String) {
-                values.push(String.valueOf(a) + String.valueOf(b));
-            } else {
-                values.push(((Integer) a) + ((Integer) b));
+        if (op.equals("PLUS") && (a instanceof String || b instanceof String)) {
+            values.push(String.valueOf(a) + String.valueOf(b));
+        } else if (a instanceof Double || b instanceof Double) {
+            double ad = ((Number) a).doubleValue();
+            double bd = ((Number) b).doubleValue();
+            switch (op) {
+                case "PLUS" -> values.push(ad + bd);
+                case "MINUS" -> values.push(ad - bd);
+                case "STAR" -> values.push(ad * bd);
+                case "SLASH" -> values.push(ad / bd);
+                case "PERCENT" -> values.push(ad % bd);
+                default -> throw new RuntimeException("Unknown operator: " + op);
             }
+        } else if (op.equals("PLUS")) {
+            values.push(((Integer) a) + ((Integer) b));
         } else {
             int ai = (Integer) a;
             int bi = (Integer) b;
@@ -349,7 +888,8 @@ public class Executor {
                 }
                 String varName = s.substring(i + 1, end).trim();
                 TypedVariable var = variables.get(varName);
-                result.append(var != null && var.value != null ? var.value : "{" + varName + "}");
+                String display = var != null ? displayValue(var) : null;
+                result.append(display != null ? display : "{" + varName + "}");
                 i = end + 1;
             } else {
                 result.append(c);
@@ -368,17 +908,56 @@ public class Executor {
             case "FLOAT" -> value instanceof Float || value instanceof Double;
             case "DOUBLE" -> value instanceof Double || value instanceof Float;
             case "STRING" -> value instanceof String;
-            default -> false;
+            default -> {
+                String type = expectedType.toUpperCase();
+                if (MapValue.isMapType(type)) {
+                    yield value instanceof MapValue map && map.typeName().equals(type);
+                }
+                yield ArrayValue.isArrayType(type) && value instanceof ArrayValue array &&
+                      array.elementType.equals(ArrayValue.elementTypeOf(type));
+            }
         };
     }
 
+    private static void assign(TypedVariable var, Object value) {
+        if (value instanceof ArrayValue array) {
+            var.array = array;
+            var.value = null;
+        } else if (value instanceof MapValue map) {
+            var.map = map;
+            var.value = null;
+        } else {
+            var.value = value.toString();
+        }
+    }
+
+    private static Object readVariable(TypedVariable var) {
+        if (var.array != null) return var.array;
+        if (var.map != null) return var.map;
+
+        switch (var.type) {
+            case "DOUBLE", "FLOAT" -> {
+                return Double.parseDouble(var.value);
+            }
+            case "BOOLEAN" -> {
+                return Boolean.parseBoolean(var.value);
+            }
+            case "STRING" -> {
+                return var.value;
+            }
+        }
 
-    private static class TypedVariable {
-        public final String type;
-        public String value;
-        public TypedVariable(String type, String value) {
-            this.type = type;
-            this.value = value;
+        try {
+            return Integer.parseInt(var.value);
+        } catch (NumberFormatException e) {
+            return var.value;
         }
     }
+
+    private static String displayValue(TypedVariable var) {
+        if (var.array != null) return var.array.toString();
+        if (var.map != null) return var.map.toString();
+        return var.value;
+    }
+
 }
@@ -0,0 +1,10 @@
+package org.nerdola.capycode.compiler;
+
+// Lançado por Logger.fatal depois que o erro já foi registrado
+public class FatalError extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public FatalError(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,80 @@
+package org.nerdola.capycode.compiler;
+
+import java.util.*;
+
+// Escopo de uma chamada de função. Nomes com slot no FunctionDef são resolvidos no
+// array de slots; o resto cai nas variáveis globais. Instâncias são reaproveitadas
+// pelo FrameStack, então nenhuma chamada aloca um HashMap novo. Funções puras, e tudo o
+// que elas chamam, não enxergam globais, senão o resultado memorizado ficaria desatualizado.
+class Frame extends AbstractMap<String, TypedVariable> {
+    FunctionDef function;
+    TypedVariable[] slots = new TypedVariable[8];
+    Map<String, TypedVariable> globals;
+    FunctionDef pureCaller; // função pura mais próxima na pilha, inclusive esta
+    int lineNumber;
+    Object returnValue;
+    boolean returned;
+
+    void enter(FunctionDef function, Map<String, TypedVariable> globals, FunctionDef pureCaller) {
+        if (slots.length < function.slotCount()) {
+            slots = new TypedVariable[Math.max(function.slotCount(), slots.length * 2)];
+        }
+        this.function = function;
+        this.globals = globals;
+        this.pureCaller = pureCaller;
+        this.returnValue = null;
+        this.returned = false;
+    }
+
+    void leave() {
+        Arrays.fill(slots, 0, function.slotCount(), null);
+        function = null;
+        globals = null;
+        pureCaller = null;
+        returnValue = null;
+    }
+
+    @Override
+    public TypedVariable get(Object name) {
+        Integer slot = function.slots.get(name);
+        if (slot != null) return slots[slot];
+
+        TypedVariable global = globals.get(name);
+        if (global != null && pureCaller != null) {
+            if (pureCaller == function) {
+                Logger.fatal("Pure function '" + function.name + "' cannot use global variable '" + name + "'", lineNumber, 0);
+            }
+            Logger.fatal("Function '" + function.name + "' cannot use global variable '" + name +
+                    "' when called from pure function '" + pureCaller.name + "'", lineNumber, 0);
+        }
+        return global;
+    }
+
+    @Override
+    public boolean containsKey(Object name) {
+        Integer slot = function.slots.get(name);
+        return slot != null ? slots[slot] != null : globals.containsKey(name);
+    }
+
+    @Override
+    public TypedVariable put(String name, TypedVariable variable) {
+        Integer slot = function.slots.get(name);
+        if (slot == null) {
+            throw new IllegalStateException("No slot for '" + name + "' in function " + function.name);
+        }
+        TypedVariable previous = slots[slot];
+        slots[slot] = variable;
+        return previous;
+    }
+
+    @Override
+    public Set<Entry<String, TypedVariable>> entrySet() {
+        Set<Entry<String, TypedVariable>> entries = new LinkedHashSet<>();
+        for (Map.Entry<String, Integer> slot : function.slots.entrySet()) {
+            if (slots[slot.getValue()] != null) {
+                entries.add(new SimpleImmutableEntry<>(slot.getKey(), slots[slot.getValue()]));
+            }
+        }
+        return entries;
+    }
+}
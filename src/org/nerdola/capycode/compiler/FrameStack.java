@@ -0,0 +1,37 @@
+package org.nerdola.capycode.compiler;
+
+import java.util.*;
+
+// Pilha de frames reutilizáveis para chamadas de função
+class FrameStack {
+    static final int MAX_DEPTH = 1024;
+
+    private Frame[] frames = new Frame[16];
+    private int depth = 0;
+
+    Frame push(FunctionDef function, Map<String, TypedVariable> globals, int lineNumber) {
+        if (depth == MAX_DEPTH) {
+            Logger.fatal("Stack overflow calling '" + function.name + "' (max depth " + MAX_DEPTH + ")", lineNumber, 0);
+        }
+        if (depth == frames.length) {
+            frames = Arrays.copyOf(frames, frames.length * 2);
+        }
+        Frame frame = frames[depth];
+        if (frame == null) {
+            frame = new Frame();
+            frames[depth] = frame;
+        }
+        FunctionDef pureCaller = function.isPure() ? function : depth > 0 ? frames[depth - 1].pureCaller : null;
+        depth++;
+        frame.enter(function, globals, pureCaller);
+        return frame;
+    }
+
+    int depth() {
+        return depth;
+    }
+
+    void pop() {
+        frames[--depth].leave();
+    }
+}
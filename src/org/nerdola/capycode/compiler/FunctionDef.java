@@ -0,0 +1,53 @@
+package org.nerdola.capycode.compiler;
+
+import java.util.*;
+
+// Função declarada com func(...). O layout do frame é fixo: os parâmetros ocupam
+// os primeiros slots e cada var(...) do corpo recebe o slot seguinte.
+class FunctionDef {
+    static final int MEMO_CAPACITY = 256;
+
+    public final String name;
+    public final String returnType;
+    public final List<String> paramTypes;
+    public final List<Statement> body;
+    public final Map<String, Integer> slots;
+    public final Map<List<Object>, Object> memo;
+
+    public FunctionDef(String name, String returnType, List<String> paramTypes, List<String> paramNames,
+                       List<Statement> body, boolean pure) {
+        this.name = name;
+        this.returnType = returnType;
+        this.paramTypes = paramTypes;
+        this.body = body;
+        this.slots = new HashMap<>();
+
+        for (String param : paramNames) {
+            slots.put(param, slots.size());
+        }
+        for (Statement statement : body) {
+            if (statement.tokens.size() > 2 && statement.tokens.get(0).startsWith("VAR(")) {
+                slots.putIfAbsent(Executor.extractTokenValue(statement.tokens.get(2)), slots.size());
+            }
+        }
+
+        this.memo = pure ? new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, Object> eldest) {
+                return size() > MEMO_CAPACITY;
+            }
+        } : null;
+    }
+
+    public int slotCount() {
+        return slots.size();
+    }
+
+    public int arity() {
+        return paramTypes.size();
+    }
+
+    public boolean isPure() {
+        return memo != null;
+    }
+}
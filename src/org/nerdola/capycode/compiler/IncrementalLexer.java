@@ -0,0 +1,149 @@
+package org.nerdola.capycode.compiler;
+
+import java.util.*;
+
+// Lexer para o modo watch: divide o fonte em comandos (terminados em ';' ou no '}'
+// de uma função) e só passa pelo Lexer os comandos cujo texto não existia na versão
+// anterior. Os demais reaproveitam os tokens já gerados, com linha/coluna ajustadas.
+public class IncrementalLexer {
+
+    public static class Segment {
+        public final String text;
+        public final List<Token> tokens;
+
+        Segment(String text, List<Token> tokens) {
+            this.text = text;
+            this.tokens = tokens;
+        }
+    }
+
+    private Map<String, List<Token>> cache = new HashMap<>();
+    private String trailingText = "";
+    private int lexedCount = 0;
+
+    public List<Segment> update(String source) {
+        Map<String, List<Token>> nextCache = new HashMap<>();
+        List<Segment> segments = new ArrayList<>();
+        int lexed = 0;
+
+        int[] bounds = new int[2];
+        int[] position = { 0, 1, 1 }; // offset, linha, coluna
+        while (nextStatement(source, position, bounds)) {
+            String text = source.substring(bounds[0], bounds[1]);
+            int line = position[1];
+            int column = position[2];
+
+            List<Token> relative = cache.get(text);
+            if (relative == null) relative = nextCache.get(text);
+            if (relative == null) {
+                relative = lex(text);
+                lexed++;
+            }
+            nextCache.put(text, relative);
+            segments.add(new Segment(text, shift(relative, line, column)));
+
+            advance(source, position, bounds[1]);
+        }
+
+        // Só troca o estado depois que todo o fonte foi lido sem erro
+        cache = nextCache;
+        trailingText = source.substring(position[0]).trim();
+        lexedCount = lexed;
+        return segments;
+    }
+
+    public int lexedCount() {
+        return lexedCount;
+    }
+
+    public String trailingText() {
+        return trailingText;
+    }
+
+    // true se o texto termina em um comando completo (usado pelo REPL para saber quando executar)
+    public static boolean isComplete(String source) {
+        int[] bounds = new int[2];
+        int[] position = { 0, 1, 1 };
+        while (nextStatement(source, position, bounds)) {
+            advance(source, position, bounds[1]);
+        }
+        return source.substring(position[0]).isBlank();
+    }
+
+    private static List<Token> lex(String text) {
+        List<Token> tokens = new Lexer(text).tokenize();
+        tokens.remove(tokens.size() - 1); // EOF
+        return tokens;
+    }
+
+    private static List<Token> shift(List<Token> relative, int line, int column) {
+        List<Token> shifted = new ArrayList<>(relative.size());
+        for (Token token : relative) {
+            int tokenColumn = token.line == 1 ? token.column + column - 1 : token.column;
+            shifted.add(new Token(token.type, token.value, token.line + line - 1, tokenColumn));
+        }
+        return shifted;
+    }
+
+    // Pula espaços a partir de position e procura o fim do próximo comando completo.
+    // Ao retornar true, position aponta para o início do comando e bounds contém [início, fim).
+    private static boolean nextStatement(String source, int[] position, int[] bounds) {
+        int start = position[0];
+        while (start < source.length() && Character.isWhitespace(source.charAt(start))) {
+            start++;
+        }
+        advance(source, position, start);
+
+        int depth = 0;
+        int i = start;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (c == '"' || c == '\'') {
+                i = skipLiteral(source, i, c);
+                continue;
+            }
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+                if (depth == 0) {
+                    bounds[0] = start;
+                    bounds[1] = i + 1;
+                    return true;
+                }
+            } else if (c == ';' && depth == 0) {
+                bounds[0] = start;
+                bounds[1] = i + 1;
+                return true;
+            }
+            i++;
+        }
+        return false;
+    }
+
+    private static int skipLiteral(String source, int i, char quote) {
+        i++;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            i++;
+            if (c == quote) break;
+        }
+        return i;
+    }
+
+    private static void advance(String source, int[] position, int target) {
+        for (int i = position[0]; i < target; i++) {
+            if (source.charAt(i) == '\n') {
+                position[1]++;
+                position[2] = 1;
+            } else {
+                position[2]++;
+            }
+        }
+        position[0] = target;
+    }
+}
@@ -0,0 +1,90 @@
+package org.nerdola.capycode.compiler;
+
+import java.util.StringJoiner;
+
+// MAP<INT,INT>
+class IntIntMap extends MapValue {
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size = 0;
+
+    IntIntMap() {
+        super("INT", "INT");
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+    }
+
+    private int slotOf(int key) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (used[i] && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return used[slotOf((Integer) key)];
+    }
+
+    @Override
+    public Object get(Object key) {
+        int i = slotOf((Integer) key);
+        return used[i] ? (Object) values[i] : null;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        putInt((Integer) key, (Integer) value);
+    }
+
+    void putInt(int key, int value) {
+        int i = slotOf(key);
+        if (!used[i]) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+                i = slotOf(key);
+            }
+            used[i] = true;
+            keys[i] = key;
+            size++;
+        }
+        values[i] = value;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slotOf(oldKeys[i]);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner out = new StringJoiner(", ", "{", "}");
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) out.add(keys[i] + "=" + values[i]);
+        }
+        return out.toString();
+    }
+}
@@ -1,5 +1,7 @@
 package org.nerdola.capycode.compiler;
 
+import org.nerdola.capycode.metrics.*;
+
 import java.util.*;
 
 public class Lexer {
@@ -13,6 +15,9 @@ public class Lexer {
     }
 
     public List<Token> tokenize() {
+        LexEvent event = new LexEvent();
+        event.begin();
+        long start = System.nanoTime();
         List<Token> tokens = new ArrayList<>();
 
         while (pos < src.length()) {
@@ -33,6 +38,11 @@ public class Lexer {
                 case '.': tokens.add(new Token(TokenType.DOT, ".", line, column)); advancePosition(c); break;
                 case '(': tokens.add(new Token(TokenType.LPAREN, "(", line, column)); advancePosition(c); break;
                 case ')': tokens.add(new Token(TokenType.RPAREN, ")", line, column)); advancePosition(c); break;
+                case '[': tokens.add(new Token(TokenType.LBRACKET, "[", line, column)); advancePosition(c); break;
+                case ']': tokens.add(new Token(TokenType.RBRACKET, "]", line, column)); advancePosition(c); break;
+                case '{': tokens.add(new Token(TokenType.LBRACE, "{", line, column)); advancePosition(c); break;
+                case '}': tokens.add(new Token(TokenType.RBRACE, "}", line, column)); advancePosition(c); break;
+                case ',': tokens.add(new Token(TokenType.COMMA, ",", line, column)); advancePosition(c); break;
                 case '"':
                     tokens.add(new Token(TokenType.STRING, readString(), line, column));
                     break;
@@ -62,34 +72,11 @@ public class Lexer {
                             continue;
                         }
 
-                        // Tratamento especial para var (ajustado para separar o tipo)
-                        else if (word.equals("var")) {
-                            tokens.add(new Token(TokenType.VAR, word, startLine, startColumn));
-                            skipWhitespace();
-
-                            if (pos < src.length()) {
-                                if (src.charAt(pos) == '(') {
-                                    advancePosition('(');
-                                    StringBuilder typeBuilder = new StringBuilder();
-                                    while (pos < src.length() && src.charAt(pos) != ')') {
-                                        char typeChar = src.charAt(pos);
-                                        if (!Character.isLetter(typeChar)) {
-                                            Logger.fatal("Invalid character in type declaration", line, column);
-                                        }
-                                        typeBuilder.append(typeChar);
-                                        advancePosition(typeChar);
-                                    }
-                                    if (pos >= src.length() || src.charAt(pos) != ')') {
-                                        Logger.fatal("Expected closing ')' in variable declaration", line, column);
-                                    }
-                                    advancePosition(')');
-                                    String type = typeBuilder.toString().toUpperCase();
-                                    tokens.add(new Token(TokenType.IDENTIFIER, type, line, column));
-                                } else if (Character.isLetter(src.charAt(pos)) || src.charAt(pos) == '_') {
-                                    String type = readWord().toUpperCase();
-                                    tokens.add(new Token(TokenType.IDENTIFIER, type, line, column));
-                                }
-                            }
+                        // Tratamento especial para var/func (ajustado para separar o tipo)
+                        else if (word.equals("var") || word.equals("func")) {
+                            TokenType keyword = word.equals("var") ? TokenType.VAR : TokenType.FUNC;
+                            tokens.add(new Token(keyword, word, startLine, startColumn));
+                            readTypeAnnotation(tokens);
                             continue;
                         } else {
                             switch (word) {
@@ -100,6 +87,8 @@ public class Lexer {
                                 case "elseif" -> tokens.add(new Token(TokenType.ELSEIF, word, startLine, startColumn));
                                 case "for" -> tokens.add(new Token(TokenType.FOR, word, startLine, startColumn));
                                 case "while" -> tokens.add(new Token(TokenType.WHILE, word, startLine, startColumn));
+                                case "return" -> tokens.add(new Token(TokenType.RETURN, word, startLine, startColumn));
+                                case "pure" -> tokens.add(new Token(TokenType.PURE, word, startLine, startColumn));
                                 default -> tokens.add(new Token(TokenType.IDENTIFIER, word, startLine, startColumn));
                             }
                         }
@@ -111,6 +100,11 @@ public class Lexer {
         }
 
         tokens.add(new Token(TokenType.EOF, "", line, column));
+
+        event.characters = src.length();
+        event.tokens = tokens.size();
+        event.commit();
+        Metrics.recordLex(System.nanoTime() - start, tokens.size());
         return tokens;
     }
 
@@ -227,6 +221,60 @@ public class Lexer {
         return String.valueOf(value);
     }
 
+    private void readTypeAnnotation(List<Token> tokens) {
+        skipWhitespace();
+
+        if (pos < src.length()) {
+            if (src.charAt(pos) == '(') {
+                advancePosition('(');
+                StringBuilder typeBuilder = new StringBuilder();
+                while (pos < src.length() && src.charAt(pos) != ')') {
+                    char typeChar = src.charAt(pos);
+                    if (typeChar == '[') {
+                        typeBuilder.append(readArraySuffix());
+                        continue;
+                    }
+                    // MAP<K, V>
+                    if (Character.isWhitespace(typeChar)) {
+                        advancePosition(typeChar);
+                        continue;
+                    }
+                    if (typeChar == '<' || typeChar == '>' || typeChar == ',') {
+                        typeBuilder.append(typeChar);
+                        advancePosition(typeChar);
+                        continue;
+                    }
+                    if (!Character.isLetter(typeChar)) {
+                        Logger.fatal("Invalid character in type declaration", line, column);
+                    }
+                    typeBuilder.append(typeChar);
+                    advancePosition(typeChar);
+                }
+                if (pos >= src.length() || src.charAt(pos) != ')') {
+                    Logger.fatal("Expected closing ')' in type declaration", line, column);
+                }
+                advancePosition(')');
+                String type = typeBuilder.toString().toUpperCase();
+                tokens.add(new Token(TokenType.IDENTIFIER, type, line, column));
+            } else if (Character.isLetter(src.charAt(pos)) || src.charAt(pos) == '_') {
+                String type = readWord().toUpperCase();
+                if (pos < src.length() && src.charAt(pos) == '[') {
+                    type += readArraySuffix();
+                }
+                tokens.add(new Token(TokenType.IDENTIFIER, type, line, column));
+            }
+        }
+    }
+
+    private String readArraySuffix() {
+        advancePosition('[');
+        if (pos >= src.length() || src.charAt(pos) != ']') {
+            Logger.fatal("Expected ']' after '[' in array type", line, column);
+        }
+        advancePosition(']');
+        return "[]";
+    }
+
     private void skipWhitespace() {
         while (pos < src.length() && Character.isWhitespace(src.charAt(pos))) {
             advancePosition(src.charAt(pos));
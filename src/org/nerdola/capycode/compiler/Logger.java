@@ -1,14 +1,27 @@
 package org.nerdola.capycode.compiler;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
 
 public class Logger {
 
-    private static final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+    // DateTimeFormatter é thread-safe; scripts podem logar a partir de várias threads
+    private static final DateTimeFormatter timeFormat = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    // Chamado por fatal() antes de lançar o erro; um por thread, já que cada script roda em uma
+    public interface FatalHook {
+        void onFatal(String message, int line);
+    }
+
+    private static final ThreadLocal<FatalHook> fatalHook = new ThreadLocal<>();
+
+    public static void setFatalHook(FatalHook hook) {
+        if (hook == null) fatalHook.remove();
+        else fatalHook.set(hook);
+    }
 
     public static void log(String level, String message, int line, int column) {
-        String timestamp = "[" + timeFormat.format(new Date()) + "]";
+        String timestamp = "[" + LocalTime.now().format(timeFormat) + "]";
         String levelTag = "[" + level.toLowerCase() + "]";
         String posInfo = (line > 0 && column > 0) ? " at " + line + ":" + column : "";
         System.err.println(String.format("%s%s (%s%s)", timestamp, levelTag, message, posInfo));
@@ -24,6 +37,11 @@ public class Logger {
 
     public static void fatal(String message, int line, int column) {
         log("fatal", message, line, column);
-        throw new RuntimeException("Fatal error: " + message + " at " + line + ":" + column);
+        FatalHook hook = fatalHook.get();
+        if (hook != null) {
+            fatalHook.remove();
+            hook.onFatal(message, line);
+        }
+        throw new FatalError("Fatal error: " + message + " at " + line + ":" + column);
     }
 }
@@ -0,0 +1,54 @@
+package org.nerdola.capycode.compiler;
+
+// Armazena variáveis var(MAP<K,V>). Toda implementação é uma tabela de endereçamento
+// aberto com sondagem linear; INT->INT e STRING->INT guardam chaves e valores em
+// arrays primitivos, então não fazem boxing na inserção.
+public abstract class MapValue {
+    static final int INITIAL_CAPACITY = 16;
+
+    public final String keyType;
+    public final String valueType;
+
+    protected MapValue(String keyType, String valueType) {
+        this.keyType = keyType;
+        this.valueType = valueType;
+    }
+
+    public static MapValue create(String keyType, String valueType) {
+        if (!keyType.equals("INT") && !keyType.equals("STRING")) {
+            throw new IllegalArgumentException("Unsupported map key type: " + keyType);
+        }
+        switch (valueType) {
+            case "INT", "DOUBLE", "FLOAT", "STRING", "BOOLEAN" -> { }
+            default -> throw new IllegalArgumentException("Unsupported map value type: " + valueType);
+        }
+
+        if (valueType.equals("INT")) {
+            return keyType.equals("INT") ? new IntIntMap() : new StringIntMap();
+        }
+        return new ObjectMap(keyType, valueType);
+    }
+
+    public static boolean isMapType(String type) {
+        return type.startsWith("MAP<") && type.endsWith(">") && type.indexOf(',') > 0;
+    }
+
+    public String typeName() {
+        return "MAP<" + keyType + "," + valueType + ">";
+    }
+
+    public abstract int size();
+
+    public abstract boolean containsKey(Object key);
+
+    // null quando a chave não existe
+    public abstract Object get(Object key);
+
+    public abstract void put(Object key, Object value);
+
+    // Espalha os bits altos do hash, já que o índice usa só os bits baixos
+    static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,80 @@
+package org.nerdola.capycode.compiler;
+
+import java.util.StringJoiner;
+
+// Demais combinações de MAP<K,V>; chaves e valores ficam como objetos
+class ObjectMap extends MapValue {
+    private Object[] keys;
+    private Object[] values;
+    private int size = 0;
+
+    ObjectMap(String keyType, String valueType) {
+        super(keyType, valueType);
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+    }
+
+    private int slotOf(Object key) {
+        int mask = keys.length - 1;
+        int i = mix(key.hashCode()) & mask;
+        while (keys[i] != null && !keys[i].equals(key)) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return keys[slotOf(key)] != null;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return values[slotOf(key)];
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        int i = slotOf(key);
+        if (keys[i] == null) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+                i = slotOf(key);
+            }
+            keys[i] = key;
+            size++;
+        }
+        values[i] = value;
+    }
+
+    private void grow() {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner out = new StringJoiner(", ", "{", "}");
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) out.add(keys[i] + "=" + values[i]);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package org.nerdola.capycode.compiler;
+
+import org.nerdola.capycode.metrics.*;
+
+import java.io.*;
+import java.util.*;
+
+// Um programa .cyc carregado, executado um comando de cada vez
+public class Script {
+    public final String name;
+    private final ExecutionContext ctx = new ExecutionContext();
+    private final List<Statement> statements;
+    private int next = 0;
+    private ExecuteEvent executeEvent;
+    private long executeStart;
+
+    private Script(String name, List<Statement> statements) {
+        this.name = name;
+        this.statements = statements;
+    }
+
+    public static Script load(String filename) throws IOException {
+        LoadEvent event = new LoadEvent();
+        event.begin();
+        long start = System.nanoTime();
+
+        File file = new File(filename);
+        List<String> lines = java.nio.file.Files.readAllLines(file.toPath());
+        int[] lineNumbers = new int[lines.size()];
+        for (int i = 0; i < lineNumbers.length; i++) {
+            lineNumbers[i] = i + 1;
+        }
+        Script script = new Script(filename, Executor.parse(lines, lineNumbers));
+
+        event.file = filename;
+        event.bytes = file.length();
+        event.lines = lines.size();
+        event.statements = script.statements.size();
+        event.commit();
+        Metrics.recordLoad(System.nanoTime() - start, event.bytes);
+        return script;
+    }
+
+    public boolean hasNext() {
+        return next < statements.size();
+    }
+
+    public void step() {
+        if (executeEvent == null) {
+            executeEvent = new ExecuteEvent();
+            executeEvent.begin();
+            executeStart = System.nanoTime();
+        }
+        Executor.executeStatement(statements.get(next++), ctx);
+    }
+
+    // Fecha o evento de execução; outcome é COMPLETED, FAILED ou CANCELLED
+    public void finish(String outcome) {
+        if (executeEvent == null) return;
+        executeEvent.script = name;
+        executeEvent.instructions = ctx.instructionCount();
+        executeEvent.outcome = outcome;
+        executeEvent.commit();
+        Metrics.recordExecute(System.nanoTime() - executeStart, ctx.instructionCount(), !outcome.equals("COMPLETED"));
+        executeEvent = null;
+
+        if (ctx.trace() != null) ctx.trace().flush();
+    }
+
+    public ExecutionContext context() {
+        return ctx;
+    }
+}
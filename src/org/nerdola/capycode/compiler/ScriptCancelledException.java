@@ -0,0 +1,10 @@
+package org.nerdola.capycode.compiler;
+
+// Lançada quando um script estoura sua cota de instruções/tempo ou é cancelado
+public class ScriptCancelledException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ScriptCancelledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,30 @@
+package org.nerdola.capycode.compiler;
+
+import java.util.List;
+
+class Statement {
+    public final List<String> tokens;
+    public final int lineNumber;
+    public final int[] tokenLines;
+
+    public Statement(List<String> tokens, int lineNumber) {
+        this.tokens = tokens;
+        this.lineNumber = lineNumber;
+        this.tokenLines = null;
+    }
+
+    public Statement(List<String> tokens, int[] tokenLines) {
+        this.tokens = tokens;
+        this.lineNumber = tokenLines[tokenLines.length - 1];
+        this.tokenLines = tokenLines;
+    }
+
+    public boolean isImport() {
+        return tokens.get(0).startsWith("USING(");
+    }
+
+    public boolean isFunctionDeclaration() {
+        String first = tokens.get(0);
+        return first.startsWith("FUNC(") || first.startsWith("PURE(");
+    }
+}
@@ -0,0 +1,91 @@
+package org.nerdola.capycode.compiler;
+
+import java.util.StringJoiner;
+
+// MAP<STRING,INT>. Guarda o hash de cada chave para não recalcular ao crescer
+// nem comparar strings cujo hash já é diferente.
+class StringIntMap extends MapValue {
+    private String[] keys;
+    private int[] hashes;
+    private int[] values;
+    private int size = 0;
+
+    StringIntMap() {
+        super("STRING", "INT");
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        hashes = new int[capacity];
+        values = new int[capacity];
+    }
+
+    private int slotOf(String key, int hash) {
+        int mask = keys.length - 1;
+        int i = hash & mask;
+        while (keys[i] != null && (hashes[i] != hash || !keys[i].equals(key))) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        String k = (String) key;
+        return keys[slotOf(k, mix(k.hashCode()))] != null;
+    }
+
+    @Override
+    public Object get(Object key) {
+        String k = (String) key;
+        int i = slotOf(k, mix(k.hashCode()));
+        return keys[i] != null ? (Object) values[i] : null;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String k = (String) key;
+        int hash = mix(k.hashCode());
+        int i = slotOf(k, hash);
+        if (keys[i] == null) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+                i = slotOf(k, hash);
+            }
+            keys[i] = k;
+            hashes[i] = hash;
+            size++;
+        }
+        values[i] = (Integer) value;
+    }
+
+    private void grow() {
+        String[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = slotOf(oldKeys[i], oldHashes[i]);
+                keys[slot] = oldKeys[i];
+                hashes[slot] = oldHashes[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner out = new StringJoiner(", ", "{", "}");
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) out.add(keys[i] + "=" + values[i]);
+        }
+        return out.toString();
+    }
+}
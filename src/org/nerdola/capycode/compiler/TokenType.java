@@ -4,11 +4,13 @@ public enum TokenType {
     // Palavras-chave
     VAR, PRINT,
     IF, ELSE, ELSEIF, FOR, WHILE,
+    FUNC, RETURN, PURE,
 
     // Operadores e símbolos
     PLUS, MINUS, STAR, SLASH, PERCENT,
     EQUAL, SEMICOLON, DOT,
     LPAREN, RPAREN,
+    LBRACKET, RBRACKET, LBRACE, RBRACE, COMMA,
     
     // Importes
     USING,
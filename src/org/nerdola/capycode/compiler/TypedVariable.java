@@ -0,0 +1,13 @@
+package org.nerdola.capycode.compiler;
+
+class TypedVariable {
+    public final String type;
+    public String value;
+    public ArrayValue array;
+    public MapValue map;
+
+    public TypedVariable(String type, String value) {
+        this.type = type;
+        this.value = value;
+    }
+}
@@ -0,0 +1,18 @@
+package org.nerdola.capycode.metrics;
+
+import jdk.jfr.*;
+
+@Name("org.nerdola.capycode.Execute")
+@Label("Execute Script")
+@Category({ "CapyCode", "Runtime" })
+@Description("Execution of a whole script")
+public class ExecuteEvent extends Event {
+    @Label("Script")
+    public String script;
+
+    @Label("Instructions")
+    public long instructions;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,15 @@
+package org.nerdola.capycode.metrics;
+
+import jdk.jfr.*;
+
+@Name("org.nerdola.capycode.Lex")
+@Label("Lex")
+@Category({ "CapyCode", "Compiler" })
+@Description("Tokenizing a .cy source")
+public class LexEvent extends Event {
+    @Label("Characters")
+    public int characters;
+
+    @Label("Tokens")
+    public int tokens;
+}
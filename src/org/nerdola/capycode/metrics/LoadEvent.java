@@ -0,0 +1,22 @@
+package org.nerdola.capycode.metrics;
+
+import jdk.jfr.*;
+
+@Name("org.nerdola.capycode.Load")
+@Label("Load Script")
+@Category({ "CapyCode", "Runtime" })
+@Description("Reading and parsing a .cyc file")
+public class LoadEvent extends Event {
+    @Label("File")
+    public String file;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Token Lines")
+    public int lines;
+
+    @Label("Statements")
+    public int statements;
+}
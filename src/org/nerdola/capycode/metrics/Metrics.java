@@ -0,0 +1,66 @@
+package org.nerdola.capycode.metrics;
+
+import org.nerdola.capycode.compiler.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.*;
+
+// Contadores das fases de compilação/execução, publicados via JMX em
+// org.nerdola.capycode:type=Metrics
+public class Metrics implements MetricsMXBean {
+
+    public static final Metrics INSTANCE = new Metrics();
+
+    private final PhaseStats lex = new PhaseStats();
+    private final PhaseStats write = new PhaseStats();
+    private final PhaseStats load = new PhaseStats();
+    private final PhaseStats execute = new PhaseStats();
+
+    private final LongAdder tokensLexed = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder bytesLoaded = new LongAdder();
+    private final LongAdder instructionsExecuted = new LongAdder();
+    private final LongAdder scriptsFailed = new LongAdder();
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(INSTANCE, new ObjectName("org.nerdola.capycode:type=Metrics"));
+        } catch (JMException e) {
+            Logger.warning("Could not register JMX metrics: " + e.getMessage(), 0, 0);
+        }
+    }
+
+    public static void recordLex(long nanos, int tokens) {
+        INSTANCE.lex.record(nanos);
+        INSTANCE.tokensLexed.add(tokens);
+    }
+
+    public static void recordWrite(long nanos, long bytes) {
+        INSTANCE.write.record(nanos);
+        INSTANCE.bytesWritten.add(bytes);
+    }
+
+    public static void recordLoad(long nanos, long bytes) {
+        INSTANCE.load.record(nanos);
+        INSTANCE.bytesLoaded.add(bytes);
+    }
+
+    public static void recordExecute(long nanos, long instructions, boolean failed) {
+        INSTANCE.execute.record(nanos);
+        INSTANCE.instructionsExecuted.add(instructions);
+        if (failed) INSTANCE.scriptsFailed.increment();
+    }
+
+    @Override public PhaseStats getLex() { return lex; }
+    @Override public PhaseStats getWrite() { return write; }
+    @Override public PhaseStats getLoad() { return load; }
+    @Override public PhaseStats getExecute() { return execute; }
+
+    @Override public long getTokensLexed() { return tokensLexed.sum(); }
+    @Override public long getBytesWritten() { return bytesWritten.sum(); }
+    @Override public long getBytesLoaded() { return bytesLoaded.sum(); }
+    @Override public long getInstructionsExecuted() { return instructionsExecuted.sum(); }
+    @Override public long getScriptsFailed() { return scriptsFailed.sum(); }
+}
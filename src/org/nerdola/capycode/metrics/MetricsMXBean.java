@@ -0,0 +1,14 @@
+package org.nerdola.capycode.metrics;
+
+public interface MetricsMXBean {
+    PhaseStats getLex();
+    PhaseStats getWrite();
+    PhaseStats getLoad();
+    PhaseStats getExecute();
+
+    long getTokensLexed();
+    long getBytesWritten();
+    long getBytesLoaded();
+    long getInstructionsExecuted();
+    long getScriptsFailed();
+}
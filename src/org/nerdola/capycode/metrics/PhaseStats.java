@@ -0,0 +1,42 @@
+package org.nerdola.capycode.metrics;
+
+import java.util.concurrent.atomic.*;
+
+// Contador e histograma de duração de uma fase. O bucket i conta durações
+// entre 2^(i-1) e 2^i microssegundos (o bucket 0 conta durações abaixo de 1 µs).
+public class PhaseStats {
+    static final int BUCKETS = 32;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    void record(long nanos) {
+        long micros = nanos / 1000;
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+        histogram.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalMicros() {
+        return totalMicros.sum();
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    public long[] getHistogram() {
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = histogram.get(i);
+        }
+        return snapshot;
+    }
+}
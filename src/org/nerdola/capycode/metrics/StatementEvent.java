@@ -0,0 +1,17 @@
+package org.nerdola.capycode.metrics;
+
+import jdk.jfr.*;
+
+@Name("org.nerdola.capycode.Statement")
+@Label("Statement")
+@Category({ "CapyCode", "Runtime" })
+@Description("One sampled statement execution out of every 64")
+public class StatementEvent extends Event {
+    public static final int SAMPLE_INTERVAL = 64;
+
+    @Label("Line")
+    public int line;
+
+    @Label("Operation")
+    public String operation;
+}
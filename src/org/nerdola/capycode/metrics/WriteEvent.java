@@ -0,0 +1,19 @@
+package org.nerdola.capycode.metrics;
+
+import jdk.jfr.*;
+
+@Name("org.nerdola.capycode.Write")
+@Label("Write Bytecode")
+@Category({ "CapyCode", "Compiler" })
+@Description("Writing a .cyc file")
+public class WriteEvent extends Event {
+    @Label("File")
+    public String file;
+
+    @Label("Tokens")
+    public int tokens;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
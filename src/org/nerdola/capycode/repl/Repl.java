@@ -0,0 +1,95 @@
+package org.nerdola.capycode.repl;
+
+import org.nerdola.capycode.compiler.*;
+import org.nerdola.capycode.util.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+
+public class Repl {
+
+    private static final long POLL_INTERVAL_MS = 200;
+
+    public static void interactive() throws IOException {
+        ExecutionContext ctx = new ExecutionContext(true);
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        StringBuilder buffer = new StringBuilder();
+
+        System.out.println("CapyCode REPL. Type :quit to exit.");
+        while (true) {
+            System.out.print(buffer.length() == 0 ? "capy> " : "  ... ");
+            String line = in.readLine();
+            if (line == null || (buffer.length() == 0 && line.trim().equals(":quit"))) break;
+
+            buffer.append(line).append('\n');
+            String source = buffer.toString();
+            if (!IncrementalLexer.isComplete(source)) continue;
+            buffer.setLength(0);
+
+            try {
+                Executor.execute(new Lexer(source).tokenize(), ctx);
+            } catch (RuntimeException e) {
+                report(e);
+            }
+        }
+    }
+
+    // Observa o arquivo .cy e, a cada alteração, executa o programa de novo em um contexto
+    // limpo, para que o resultado seja o mesmo de uma execução do zero. Só os comandos
+    // editados passam de novo pelo Lexer.
+    public static void watch(String filename) throws IOException, InterruptedException {
+        Path path = Path.of(filename);
+        IncrementalLexer lexer = new IncrementalLexer();
+        FileTime lastModified = null;
+
+        System.out.println("[Watch] Watching " + filename + " (Ctrl+C to stop)");
+        while (true) {
+            FileTime modified = Files.getLastModifiedTime(path);
+            if (!modified.equals(lastModified)) {
+                lastModified = modified;
+                reload(FileUtils.readFile(filename), lexer);
+            }
+            Thread.sleep(POLL_INTERVAL_MS);
+        }
+    }
+
+    private static void reload(String source, IncrementalLexer lexer) {
+        long start = System.nanoTime();
+        List<IncrementalLexer.Segment> segments;
+        try {
+            segments = lexer.update(source);
+        } catch (RuntimeException e) {
+            report(e);
+            return;
+        }
+
+        ExecutionContext ctx = new ExecutionContext();
+        int executed = 0;
+        for (IncrementalLexer.Segment segment : segments) {
+            executed++;
+            try {
+                Executor.execute(segment.tokens, ctx);
+            } catch (RuntimeException e) {
+                report(e);
+                break;
+            }
+        }
+
+        if (!lexer.trailingText().isEmpty()) {
+            Logger.warning("Incomplete statement at end of file: " + lexer.trailingText(), 0, 0);
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("[Watch] Re-lexed " + lexer.lexedCount() + "/" + segments.size() +
+                " statements, executed " + executed + " in " + elapsedMs + " ms");
+    }
+
+    private static void report(RuntimeException e) {
+        // FatalError já foi registrado pelo Logger
+        if (!(e instanceof FatalError)) {
+            Logger.log("error", String.valueOf(e.getMessage()), 0, 0);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.nerdola.capycode.scheduler;
+
+import org.nerdola.capycode.compiler.*;
+
+import java.util.concurrent.*;
+
+public class ScriptHandle {
+
+    public enum Status { RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    public final Script script;
+    private final CompletableFuture<Status> result = new CompletableFuture<>();
+    private volatile Status status = Status.RUNNING;
+    private volatile String message = "";
+
+    ScriptHandle(Script script) {
+        this.script = script;
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    public String message() {
+        return message;
+    }
+
+    public long instructionCount() {
+        return script.context().instructionCount();
+    }
+
+    // O script para no próximo comando que executar
+    public void cancel() {
+        script.context().cancel();
+    }
+
+    public Status await() throws InterruptedException {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    void finish(Status status, String message) {
+        script.finish(status.name());
+        this.status = status;
+        this.message = message;
+        result.complete(status);
+    }
+}
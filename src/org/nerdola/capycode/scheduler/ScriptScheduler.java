@@ -0,0 +1,79 @@
+package org.nerdola.capycode.scheduler;
+
+import org.nerdola.capycode.compiler.*;
+
+import java.util.concurrent.*;
+
+// Executa vários scripts em um pool fixo de threads. Cada script roda no máximo
+// sliceInstructions comandos por vez e então volta para o fim da fila, liberando a
+// thread para os outros. Scripts que estouram a cota são cancelados.
+public class ScriptScheduler implements AutoCloseable {
+
+    private final ExecutorService pool;
+    private final int sliceInstructions;
+
+    public ScriptScheduler(int threads, int sliceInstructions) {
+        this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "capycode-script");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sliceInstructions = sliceInstructions;
+    }
+
+    // maxMillis <= 0 desativa o limite de tempo; só o tempo executando slices é contado
+    public ScriptHandle submit(Script script, long maxInstructions, long maxMillis) {
+        ScriptHandle handle = new ScriptHandle(script);
+        script.context().setQuota(maxInstructions, maxMillis);
+        pool.execute(() -> runSlice(handle));
+        return handle;
+    }
+
+    private void runSlice(ScriptHandle handle) {
+        Script script = handle.script;
+        ExecutionContext ctx = script.context();
+        long sliceEnd = ctx.instructionCount() + sliceInstructions;
+
+        ctx.resumeClock();
+        try {
+            while (script.hasNext() && ctx.instructionCount() < sliceEnd) {
+                script.step();
+            }
+        } catch (ScriptCancelledException e) {
+            Logger.warning("Script '" + script.name + "' cancelled: " + e.getMessage(), 0, 0);
+            handle.finish(ScriptHandle.Status.CANCELLED, e.getMessage());
+            return;
+        } catch (Throwable e) {
+            // FatalError já foi registrado pelo Logger. Errors (ex.: StackOverflowError) também
+            // encerram só o script; sem o finish, await() ficaria bloqueado para sempre.
+            if (!(e instanceof FatalError)) {
+                Logger.log("error", "Script '" + script.name + "' failed: " + e, 0, 0);
+            }
+            handle.finish(ScriptHandle.Status.FAILED, String.valueOf(e.getMessage()));
+            return;
+        } finally {
+            ctx.pauseClock();
+        }
+
+        if (!script.hasNext()) {
+            handle.finish(ScriptHandle.Status.COMPLETED, "");
+            return;
+        }
+
+        try {
+            pool.execute(() -> runSlice(handle));
+        } catch (RejectedExecutionException e) {
+            handle.finish(ScriptHandle.Status.CANCELLED, "Scheduler shut down");
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
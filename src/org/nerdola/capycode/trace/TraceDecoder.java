@@ -0,0 +1,70 @@
+package org.nerdola.capycode.trace;
+
+import java.io.*;
+import java.nio.file.*;
+
+// Converte um arquivo .cyt gravado pelo TraceRecorder em texto
+public class TraceDecoder {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("Usage: TraceDecoder <file.cyt>");
+            return;
+        }
+        decode(Path.of(args[0]), System.out);
+    }
+
+    public static void decode(Path path, PrintStream out) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != TraceRecorder.MAGIC) {
+                throw new IOException("Not a CapyCode trace file: " + path);
+            }
+            int version = in.readShort();
+            if (version != TraceRecorder.VERSION) {
+                throw new IOException("Unsupported trace version: " + version);
+            }
+
+            String[] symbols = new String[in.readInt()];
+            for (int i = 0; i < symbols.length; i++) {
+                symbols[i] = in.readUTF();
+            }
+
+            long written = in.readLong();
+            int retained = in.readInt();
+            out.println("# " + retained + " of " + written + " events");
+
+            TraceOp[] ops = TraceOp.values();
+            for (long seq = written - retained; seq < written; seq++) {
+                long header = in.readLong();
+                long value = in.readLong();
+
+                int line = (int) (header >>> 32);
+                TraceOp op = ops[(int) (header >>> 24) & 0xFF];
+                int kind = (int) (header >>> 20) & 0xF;
+                int symbol = (int) header & TraceRecorder.NO_SYMBOL;
+
+                StringBuilder text = new StringBuilder();
+                text.append('#').append(seq).append(" line ").append(line).append(' ').append(op);
+                if (symbol != TraceRecorder.NO_SYMBOL) {
+                    text.append(' ').append(symbols[symbol]);
+                }
+                if (kind != TraceRecorder.KIND_NONE) {
+                    text.append(" = ").append(formatValue(kind, value));
+                }
+                out.println(text);
+            }
+        }
+    }
+
+    private static String formatValue(int kind, long value) {
+        return switch (kind) {
+            case TraceRecorder.KIND_INT -> Long.toString(value);
+            case TraceRecorder.KIND_DOUBLE -> Double.toString(Double.longBitsToDouble(value));
+            case TraceRecorder.KIND_BOOLEAN -> value != 0 ? "true" : "false";
+            case TraceRecorder.KIND_STRING -> "string(" + value + " chars)";
+            case TraceRecorder.KIND_ARRAY -> "array[" + value + "]";
+            case TraceRecorder.KIND_MAP -> "map[" + value + "]";
+            default -> "?";
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package org.nerdola.capycode.trace;
+
+public enum TraceOp {
+    STATEMENT,  // início de um comando; valor = número da instrução
+    IMPORT,     // using X
+    DEFINE,     // func declarada; valor = número de parâmetros
+    DECLARE,    // var(...) X = valor
+    ASSIGN,     // X = valor
+    INDEX,      // índice do STORE seguinte
+    STORE,      // X[i] = valor
+    CALL,       // chamada de função ou Array.*
+    RETURN,     // retorno de função
+    MEMO_HIT,   // chamada de função pura respondida pelo cache
+    INPUT,      // valor lido por Output.input
+    OUTPUT,     // texto enviado para Output.print/println
+    FATAL       // erro fatal; nome = mensagem
+}
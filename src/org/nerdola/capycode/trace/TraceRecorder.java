@@ -0,0 +1,151 @@
+package org.nerdola.capycode.trace;
+
+import org.nerdola.capycode.compiler.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+// Grava eventos de execução em um buffer circular de tamanho fixo. Cada evento ocupa
+// dois longs:
+//   [linha:32 | op:8 | tipo do valor:4 | símbolo:20] [valor:64]
+// Só nomes (variáveis, funções, bibliotecas) e a mensagem do erro fatal vão para a
+// tabela de símbolos; de valores STRING grava-se apenas o tamanho, para que a saída do
+// programa não custe hash nem memória. Um recorder pertence a um único script e não é
+// thread-safe.
+public class TraceRecorder implements Logger.FatalHook {
+
+    static final int MAGIC = 0x43595452; // "CYTR"
+    static final int VERSION = 2;
+
+    static final int KIND_NONE = 0;
+    static final int KIND_INT = 1;
+    static final int KIND_DOUBLE = 2;
+    static final int KIND_BOOLEAN = 3;
+    static final int KIND_STRING = 4;
+    static final int KIND_ARRAY = 5;
+    static final int KIND_MAP = 6;
+    static final int KIND_OTHER = 7;
+
+    static final int NO_SYMBOL = 0xFFFFF;
+    static final int MAX_SYMBOLS = 1 << 16;
+    static final int MAX_SYMBOL_LENGTH = 1024;
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final long[] events;
+    private final int capacity;
+    private long written = 0;
+    private final Map<String, Integer> symbolIds = new HashMap<>();
+    private final List<String> symbols = new ArrayList<>();
+    private final Path dumpPath;
+    private long dumpedAt = -1;
+
+    public TraceRecorder(int capacity, Path dumpPath) {
+        this.capacity = capacity;
+        this.events = new long[capacity * 2];
+        this.dumpPath = dumpPath;
+    }
+
+    public void recordInt(int line, TraceOp op, String name, long value) {
+        write(line, op, KIND_INT, symbol(name), value);
+    }
+
+    public void record(int line, TraceOp op, String name, Object value) {
+        int kind;
+        long bits;
+        if (value == null) {
+            kind = KIND_NONE;
+            bits = 0;
+        } else if (value instanceof Integer i) {
+            kind = KIND_INT;
+            bits = i;
+        } else if (value instanceof Double d) {
+            kind = KIND_DOUBLE;
+            bits = Double.doubleToRawLongBits(d);
+        } else if (value instanceof Boolean b) {
+            kind = KIND_BOOLEAN;
+            bits = b ? 1 : 0;
+        } else if (value instanceof String s) {
+            kind = KIND_STRING;
+            bits = s.length();
+        } else if (value instanceof ArrayValue array) {
+            kind = KIND_ARRAY;
+            bits = array.length();
+        } else if (value instanceof MapValue map) {
+            kind = KIND_MAP;
+            bits = map.size();
+        } else {
+            kind = KIND_OTHER;
+            bits = 0;
+        }
+        write(line, op, kind, symbol(name), bits);
+    }
+
+    private void write(int line, TraceOp op, int kind, int symbol, long value) {
+        int index = (int) (written % capacity) * 2;
+        events[index] = ((long) line << 32) | ((long) op.ordinal() << 24) | ((long) kind << 20) | symbol;
+        events[index + 1] = value;
+        written++;
+    }
+
+    private int symbol(String name) {
+        if (name == null) return NO_SYMBOL;
+        if (name.length() > MAX_SYMBOL_LENGTH) name = name.substring(0, MAX_SYMBOL_LENGTH);
+        Integer id = symbolIds.get(name);
+        if (id != null) return id;
+        if (symbols.size() >= MAX_SYMBOLS) return NO_SYMBOL;
+
+        id = symbols.size();
+        symbols.add(name);
+        symbolIds.put(name, id);
+        return id;
+    }
+
+    // script.cyc -> script.cyt
+    public static Path pathFor(String scriptName) {
+        int dot = scriptName.lastIndexOf('.');
+        String base = dot > scriptName.lastIndexOf(File.separatorChar) ? scriptName.substring(0, dot) : scriptName;
+        return Path.of(base + ".cyt");
+    }
+
+    // Grava em dumpPath se houve eventos desde o último dump
+    public void flush() {
+        if (written == dumpedAt) return;
+        try {
+            dump(dumpPath);
+            dumpedAt = written;
+            Logger.info("Trace written to " + dumpPath, 0, 0);
+        } catch (IOException e) {
+            Logger.warning("Could not write trace to " + dumpPath + ": " + e.getMessage(), 0, 0);
+        }
+    }
+
+    // Formato: MAGIC, VERSION, símbolos (UTF), total de eventos gravados,
+    // eventos retidos e os eventos em ordem cronológica
+    public void dump(Path path) throws IOException {
+        long retained = Math.min(written, capacity);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(symbols.size());
+            for (String symbol : symbols) {
+                out.writeUTF(symbol);
+            }
+            out.writeLong(written);
+            out.writeInt((int) retained);
+            for (long seq = written - retained; seq < written; seq++) {
+                int index = (int) (seq % capacity) * 2;
+                out.writeLong(events[index]);
+                out.writeLong(events[index + 1]);
+            }
+        }
+    }
+
+    // Registrado no Logger enquanto o script executa
+    @Override
+    public void onFatal(String message, int line) {
+        record(line, TraceOp.FATAL, message, null);
+        flush();
+    }
+}